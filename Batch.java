@@ -0,0 +1,387 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Processes the games of many PGN files on a work-stealing thread pool.
+ *
+ * Every file is cut into fixed-size byte ranges, and each task finds and
+ * formats the games that start in its range on its own, so even a single
+ * large file keeps all threads busy. Finished tasks go through a reorder
+ * buffer so the output comes out in input order, the same as reading the
+ * files one game at a time; unordered, each task's output is written as
+ * soon as it is done. The number of tasks in flight is bounded, so memory
+ * use stays flat however large the inputs are.
+ *
+ * With a `Checkpoint` set, an ordered run saves how far its output has
+ * got every `CHECKPOINT_INTERVAL` and when it is done, and starts where
+ * the checkpoint says: the tasks are the same byte ranges every time, so
+ * a resumed run writes exactly what the rest of the first one would have.
+ *
+ * By default the first game that fails to format stops the run. With a
+ * reject stream set, a game that fails is instead written there as a
+ * line giving its file, offset and the reason, and the run goes on with
+ * the next game.
+ */
+public final class Batch {
+
+    /**
+     * The most worker threads: a `ForkJoinPool` takes at most 32767, and
+     * the reorder window is four tasks per thread.
+     */
+    public static final int MAX_THREADS = 32767 / 4;
+
+    private static final long CHUNK_SIZE = 4 << 20;
+    private static final long CHECKPOINT_INTERVAL =
+        TimeUnit.SECONDS.toNanos(10);
+
+    private final ExecutorService pool;
+    private final boolean ordered;
+    private final PrintStream out;
+
+    // tasks in flight, and the reorder buffer indexed by sequence number
+    private final int window;
+    private final Semaphore slots;
+    private final Task[] finished;
+    private long nextToWrite;
+    private long submitted;
+
+    // where games that fail go, and how many have
+    private PrintStream rejects;
+    private long rejected;
+
+    // the games written so far, and where they were last saved
+    private Checkpoint checkpoint;
+    private List<Path> files;
+    private long games;
+    private long checkpointed;
+
+    // the earliest task that threw, and what it threw
+    private volatile long failedAt = Long.MAX_VALUE;
+    private Throwable failure;
+
+    /**
+     * @param threads the number of worker threads
+     * @param ordered whether output keeps the order of the input games
+     * @param out where the formatted games are written
+     * @throws IllegalArgumentException if threads is not from 1 to
+     *     `MAX_THREADS`
+     */
+    public Batch(int threads, boolean ordered, PrintStream out) {
+        if (threads < 1 || threads > MAX_THREADS) {
+            throw new IllegalArgumentException(threads + " threads, "
+                + "expected 1 to " + MAX_THREADS);
+        }
+        this.pool = Executors.newWorkStealingPool(threads);
+        this.ordered = ordered;
+        this.out = out;
+        this.window = threads * 4;
+        this.slots = new Semaphore(window);
+        this.finished = new Task[window];
+    }
+
+    /**
+     * Write each game that fails to format to rejects, one line per game,
+     * and go on with the next instead of stopping the run.
+     *
+     * @param rejects where to write the failed games
+     */
+    public void setRejects(PrintStream rejects) {
+        this.rejects = rejects;
+    }
+
+    /**
+     * @return how many games failed and were written to the rejects
+     */
+    public synchronized long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Save progress to checkpoint and start from where it was saved last.
+     * Only an ordered run can be checkpointed.
+     *
+     * @param checkpoint the progress to resume from and save to
+     */
+    public void setCheckpoint(Checkpoint checkpoint) {
+        if (!ordered) {
+            throw new IllegalStateException(
+                "an unordered run cannot be checkpointed");
+        }
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Expand a list of files and directories into the PGN files to read:
+     * files are taken as given, directories are searched recursively for
+     * `.pgn` files, which are taken in path order.
+     *
+     * @param inputs file and directory names
+     * @return the files to read, in order
+     * @throws IOException if a directory cannot be listed
+     */
+    public static List<Path> expand(List<String> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String input : inputs) {
+            Path path = Paths.get(input);
+            if (!Files.isDirectory(path)) {
+                files.add(path);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(path)) {
+                files.addAll(walk
+                    .filter(p -> p.toString().endsWith(".pgn"))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList()));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Format every game of files with format and write the results.
+     *
+     * @param files the PGN files to read, in order
+     * @param format turns the text of one game into its output
+     * @throws IOException if a file cannot be read
+     * @throws RuntimeException the first exception format threw, after
+     *     the games before it have been written
+     */
+    public void run(List<Path> files, Function<ByteBuffer, String> format)
+            throws IOException {
+        run(files, null, format);
+    }
+
+    /**
+     * Format the games of files whose tags filter accepts and write the
+     * results. The movetext of the other games is never read into memory.
+     *
+     * @param files the PGN files to read, in order
+     * @param filter the test for a game's tags, or null to take all games
+     * @param format turns the text of one game into its output
+     * @throws IOException if a file cannot be read
+     * @throws RuntimeException the first exception format or filter threw,
+     *     after the games before it have been written
+     */
+    public void run(List<Path> files, Predicate<PgnHeader> filter,
+            Function<ByteBuffer, String> format) throws IOException {
+        this.files = files;
+        int first = 0;
+        long from = 0;
+        if (checkpoint != null) {
+            first = checkpoint.file();
+            from = checkpoint.offset();
+            games = checkpoint.games();
+            checkpointed = System.nanoTime();
+            String name = checkpoint.fileName();
+            if (first < files.size() && !name.isEmpty()
+                    && !files.get(first).toString().equals(name)) {
+                throw new IllegalArgumentException("the checkpoint is for "
+                    + name + ", not " + files.get(first));
+            }
+        }
+        try {
+            for (int i = first; i < files.size(); i++) {
+                Path file = files.get(i);
+                long size = Files.size(file);
+                for (long start = i == first ? from : 0;
+                        start < size && !failed(); start += CHUNK_SIZE) {
+                    long end = Math.min(size, start + CHUNK_SIZE);
+                    submit(new Task(i, end, rejects != null),
+                        formatRange(file, start, end, filter, format));
+                }
+            }
+            // all slots free means every task has been written
+            slots.acquireUninterruptibly(window);
+            slots.release(window);
+            if (checkpoint != null && !failed()) {
+                flush();
+                checkpoint.save(files.size(), "", 0, games);
+            }
+        } finally {
+            pool.shutdown();
+            flush();
+        }
+        Throwable failure;
+        synchronized (this) {
+            failure = this.failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure != null) {
+            throw (Error) failure;
+        }
+    }
+
+    /**
+     * Format the games of file that start in the byte range [start, end).
+     * The worker resynchronizes on the first game boundary at or after
+     * start and reads the last game to its end, past end if it straddles
+     * the edge; the next range begins with the game after it.
+     */
+    private static Consumer<Task> formatRange(Path file, long start,
+            long end, Predicate<PgnHeader> filter,
+            Function<ByteBuffer, String> format) {
+        return task -> {
+            try (FileChannel channel = FileChannel.open(file)) {
+                long first = GameReader.nextGameStart(channel, start);
+                if (first >= end) {
+                    return;
+                }
+                channel.position(first);
+                GameReader games = new GameReader(channel, first);
+                games.setFilter(filter);
+                games.stopAt(end);
+                while (games.hasNext()) {
+                    PgnGame game = games.next();
+                    try {
+                        task.output.append(format.apply(game.bytes()));
+                        task.games++;
+                    } catch (RuntimeException e) {
+                        if (task.rejects == null) {
+                            throw e;
+                        }
+                        reject(task.rejects, file, game.offset(), e);
+                        task.rejected++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Queue work as the next task, waiting while the window is full. The
+     * task appends its output to a buffer; if it throws, what it appended
+     * before that is still written.
+     */
+    private void submit(Task task, Consumer<Task> work) {
+        long sequence = submitted++;
+        slots.acquireUninterruptibly();
+        pool.execute(() -> {
+            try {
+                if (sequence < failedAt) {
+                    work.accept(task);
+                }
+            } catch (RuntimeException | Error e) {
+                fail(sequence, e);
+            }
+            finish(sequence, task);
+        });
+    }
+
+    private boolean failed() {
+        return failedAt != Long.MAX_VALUE;
+    }
+
+    private synchronized void fail(long sequence, Throwable e) {
+        if (sequence < failedAt) {
+            failedAt = sequence;
+            failure = e;
+        }
+    }
+
+    /**
+     * Write the output of task sequence, or park it in the reorder buffer
+     * until the tasks before it are written.
+     */
+    private synchronized void finish(long sequence, Task task) {
+        if (!ordered) {
+            write(sequence, task);
+            return;
+        }
+        finished[(int) (sequence % window)] = task;
+        for (Task next; (next = finished[(int) (nextToWrite % window)])
+                != null; nextToWrite++) {
+            finished[(int) (nextToWrite % window)] = null;
+            write(nextToWrite, next);
+        }
+    }
+
+    private void write(long sequence, Task task) {
+        // nothing after the failed task or, in order, after it is written
+        if (sequence <= failedAt) {
+            out.print(task.output);
+            if (task.rejects != null) {
+                rejects.print(task.rejects);
+                rejected += task.rejected;
+            }
+        }
+        if (checkpoint != null && sequence < failedAt) {
+            games += task.games;
+            if (System.nanoTime() - checkpointed > CHECKPOINT_INTERVAL) {
+                save(sequence, task);
+            }
+        }
+        slots.release();
+    }
+
+    private void save(long sequence, Task task) {
+        try {
+            flush();
+            checkpoint.save(task.file, files.get(task.file).toString(),
+                task.end, games);
+            checkpointed = System.nanoTime();
+        } catch (IOException e) {
+            fail(sequence + 1, new UncheckedIOException(e));
+        }
+    }
+
+    private void flush() {
+        out.flush();
+        if (rejects != null) {
+            rejects.flush();
+        }
+    }
+
+    /**
+     * Append the reject line for the game at offset in file that failed
+     * with e: the file, the offset and the reason, separated by tabs.
+     */
+    static void reject(StringBuilder sb, Object file, long offset,
+            RuntimeException e) {
+        String reason = e.getMessage() == null ? e.getClass().getName()
+            : e.getClass().getName() + ": " + e.getMessage();
+        sb.append(file).append('\t').append(offset).append('\t')
+            .append(reason.replace('\n', ' ').replace('\r', ' '))
+            .append(System.lineSeparator());
+    }
+
+    /**
+     * One byte range of an input file, with the output of its games once
+     * they are formatted and, if games are rejected, their reject lines.
+     */
+    private static final class Task {
+
+        final int file;
+        final long end;
+        final StringBuilder output = new StringBuilder();
+        final StringBuilder rejects;
+        int games;
+        int rejected;
+
+        Task(int file, long end, boolean isolated) {
+            this.file = file;
+            this.end = end;
+            this.rejects = isolated ? new StringBuilder() : null;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Precomputed 64-bit square sets. Bit n stands for square n, with a1 = 0,
+ * b1 = 1 and h8 = 63, the same numbering `San` uses.
+ */
+public final class Bitboards {
+
+    public static final long[] FILES = new long[8];
+    public static final long[] RANKS = new long[8];
+
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+    public static final long[] KING_ATTACKS = new long[64];
+
+    /** Every square on the same rank or file, the square itself excluded. */
+    public static final long[] ROOK_LINES = new long[64];
+
+    /** Every square on the same diagonals, the square itself excluded. */
+    public static final long[] BISHOP_LINES = new long[64];
+
+    /** BETWEEN[a][b] holds the squares strictly between a and b on a line. */
+    public static final long[][] BETWEEN = new long[64][64];
+
+    /** LINE[a][b] holds the whole line through a and b, or 0 if none. */
+    public static final long[][] LINE = new long[64][64];
+
+    /** PAWN_ATTACKS[color][sq] holds the squares a pawn on sq attacks. */
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final int[][] ROOK_DIRECTIONS =
+        {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+    private static final int[][] BISHOP_DIRECTIONS =
+        {{1, 1}, {1, -1}, {-1, -1}, {-1, 1}};
+
+    // magic bitboard lookup for sliding pieces
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    static {
+        for (int i = 0; i < 8; i++) {
+            FILES[i] = 0x0101010101010101L << i;
+            RANKS[i] = 0xffL << (8 * i);
+        }
+        int[][] knight = {{1, 2}, {2, 1}, {2, -1}, {1, -2},
+            {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+        int[][] king = {{0, 1}, {1, 1}, {1, 0}, {1, -1},
+            {0, -1}, {-1, -1}, {-1, 0}, {-1, 1}};
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT_ATTACKS[sq] = steps(sq, knight);
+            KING_ATTACKS[sq] = steps(sq, king);
+            for (int d = 0; d < 8; d++) {
+                int df = king[d][0];
+                int dr = king[d][1];
+                boolean straight = df == 0 || dr == 0;
+                long ray = 0;
+                int f = sq % 8 + df;
+                int r = sq / 8 + dr;
+                while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                    int to = r * 8 + f;
+                    BETWEEN[sq][to] = ray;
+                    ray |= bit(to);
+                    f += df;
+                    r += dr;
+                }
+                if (straight) {
+                    ROOK_LINES[sq] |= ray;
+                } else {
+                    BISHOP_LINES[sq] |= ray;
+                }
+            }
+            PAWN_ATTACKS[0][sq] = steps(sq, new int[][] {{-1, 1}, {1, 1}});
+            PAWN_ATTACKS[1][sq] = steps(sq, new int[][] {{-1, -1}, {1, -1}});
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if ((ROOK_LINES[a] & bit(b)) != 0) {
+                    LINE[a][b] = (ROOK_LINES[a] & ROOK_LINES[b]) | bit(a)
+                        | bit(b);
+                } else if ((BISHOP_LINES[a] & bit(b)) != 0) {
+                    LINE[a][b] = (BISHOP_LINES[a] & BISHOP_LINES[b])
+                        | bit(a) | bit(b);
+                }
+            }
+        }
+        // a fixed seed keeps the magics, and so start-up, reproducible
+        long[] seed = {0x9e3779b97f4a7c15L};
+        for (int sq = 0; sq < 64; sq++) {
+            initMagic(sq, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS,
+                ROOK_SHIFTS, ROOK_TABLE, seed);
+            initMagic(sq, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS,
+                BISHOP_SHIFTS, BISHOP_TABLE, seed);
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    /**
+     * Find a magic multiplier for sq by trial: one that maps every subset
+     * of the relevant occupancy mask to a table slot holding the right
+     * attack set.
+     */
+    private static void initMagic(int sq, int[][] directions, long[] masks,
+            long[] magics, int[] shifts, long[][] tables, long[] seed) {
+        // edge squares never block, so they are left out of the mask
+        long edges = ((RANKS[0] | RANKS[7]) & ~RANKS[sq / 8])
+            | ((FILES[0] | FILES[7]) & ~FILES[sq % 8]);
+        long mask = slidingAttacks(sq, 0, directions) & ~edges;
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slidingAttacks(sq, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+        long[] table = new long[size];
+        int[] epoch = new int[size];
+        for (int attempt = 1; ; attempt++) {
+            long magic = random(seed) & random(seed) & random(seed);
+            if (Long.bitCount((mask * magic) >>> 56) < 6) {
+                continue;
+            }
+            boolean ok = true;
+            for (int i = 0; i < size && ok; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    ok = false;
+                }
+            }
+            if (ok) {
+                masks[sq] = mask;
+                magics[sq] = magic;
+                shifts[sq] = 64 - bits;
+                tables[sq] = table;
+                return;
+            }
+        }
+    }
+
+    private static long random(long[] seed) {
+        long x = seed[0];
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        seed[0] = x;
+        return x;
+    }
+
+    /**
+     * Attacks of a slider on sq along directions, computed ray by ray. Only
+     * used to build the lookup tables.
+     */
+    private static long slidingAttacks(int sq, long occupied,
+            int[][] directions) {
+        long attacks = 0;
+        for (int[] d : directions) {
+            int f = sq % 8 + d[0];
+            int r = sq / 8 + d[1];
+            while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                long b = bit(r * 8 + f);
+                attacks |= b;
+                if ((occupied & b) != 0) {
+                    break;
+                }
+                f += d[0];
+                r += d[1];
+            }
+        }
+        return attacks;
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        return ROOK_TABLE[sq][(int) (((occupied & ROOK_MASKS[sq])
+            * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq])];
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        return BISHOP_TABLE[sq][(int) (((occupied & BISHOP_MASKS[sq])
+            * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq])];
+    }
+
+    public static long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+
+    private static long steps(int sq, int[][] deltas) {
+        long set = 0;
+        for (int[] d : deltas) {
+            int f = sq % 8 + d[0];
+            int r = sq / 8 + d[1];
+            if (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                set |= bit(r * 8 + f);
+            }
+        }
+        return set;
+    }
+
+    public static long bit(int sq) {
+        return 1L << sq;
+    }
+
+    public static int square(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    public static int fileOf(int sq) {
+        return sq & 7;
+    }
+
+    public static int rankOf(int sq) {
+        return sq >>> 3;
+    }
+}
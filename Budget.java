@@ -0,0 +1,125 @@
+/**
+ * Limits on how much work replaying one game may take: plies, movetext
+ * tokens and wall-clock time.
+ *
+ * The replay loop checks a game's `Meter` as it goes, so a pathological
+ * game is given up with a `BudgetExceededException` as soon as it goes
+ * over, and the worker it ran on moves on to the next game. The clock is
+ * read only every `CLOCK_EVERY` tokens, which keeps the check cheap
+ * enough to leave on.
+ */
+public final class Budget {
+
+    /**
+     * No limits at all.
+     */
+    public static final Budget UNLIMITED =
+        new Budget(Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * The longest time limit, in milliseconds, that fits in nanoseconds.
+     */
+    public static final long MAX_MILLIS = Long.MAX_VALUE / 1_000_000;
+
+    private static final int CLOCK_EVERY = 256;
+
+    private final int maxPlies;
+    private final int maxTokens;
+    private final long maxNanos;
+
+    /**
+     * @param maxPlies the most moves a game may have
+     * @param maxTokens the most movetext tokens a game may have
+     * @param maxNanos the longest a game may take to replay, in
+     *     nanoseconds, or `Long.MAX_VALUE` for no limit
+     */
+    public Budget(int maxPlies, int maxTokens, long maxNanos) {
+        if (maxPlies < 0 || maxTokens < 0 || maxNanos < 0) {
+            throw new IllegalArgumentException("negative budget");
+        }
+        this.maxPlies = maxPlies;
+        this.maxTokens = maxTokens;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the same limits, but at most plies moves
+     */
+    public Budget withMaxPlies(int plies) {
+        return new Budget(plies, maxTokens, maxNanos);
+    }
+
+    /**
+     * @return the same limits, but at most tokens movetext tokens
+     */
+    public Budget withMaxTokens(int tokens) {
+        return new Budget(maxPlies, tokens, maxNanos);
+    }
+
+    /**
+     * @return the same limits, but at most millis milliseconds
+     * @throws IllegalArgumentException if millis is negative or more than
+     *     `MAX_MILLIS`
+     */
+    public Budget withMaxMillis(long millis) {
+        if (millis > MAX_MILLIS) {
+            throw new IllegalArgumentException(millis + " ms is too long");
+        }
+        return new Budget(maxPlies, maxTokens, millis * 1_000_000);
+    }
+
+    /**
+     * Start metering a game against this budget, from now.
+     *
+     * @return a meter for one game, used by one thread
+     */
+    public Meter start() {
+        return new Meter();
+    }
+
+    /**
+     * The work one game has taken so far.
+     */
+    public final class Meter {
+
+        private final long started = System.nanoTime();
+        private int plies;
+        private int tokens;
+
+        private Meter() {
+        }
+
+        /**
+         * Count a movetext token.
+         *
+         * @throws BudgetExceededException if the game has now had too
+         *     many tokens or taken too long
+         */
+        public void token() {
+            if (++tokens > maxTokens) {
+                throw new BudgetExceededException("more than " + maxTokens
+                    + " movetext tokens");
+            }
+            if (tokens % CLOCK_EVERY == 0 && maxNanos != Long.MAX_VALUE) {
+                long elapsed = System.nanoTime() - started;
+                if (elapsed > maxNanos) {
+                    throw new BudgetExceededException("more than "
+                        + maxNanos / 1_000_000 + " ms");
+                }
+            }
+        }
+
+        /**
+         * Count a move played.
+         *
+         * @throws BudgetExceededException if the game has now had too
+         *     many moves
+         */
+        public void ply() {
+            if (++plies > maxPlies) {
+                throw new BudgetExceededException("more than " + maxPlies
+                    + " plies");
+            }
+        }
+    }
+}
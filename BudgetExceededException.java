@@ -0,0 +1,14 @@
+/**
+ * Thrown when replaying a game takes more than its `Budget` allows.
+ */
+public class BudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param detail which limit the game went over
+     */
+    public BudgetExceededException(String detail) {
+        super("game over budget: " + detail);
+    }
+}
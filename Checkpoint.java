@@ -0,0 +1,239 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * How far a batch run has got, saved now and then so that a run cut
+ * short can be resumed.
+ *
+ * A checkpoint names the input file and the offset in it that the run
+ * goes on from, the number of games done and how many bytes of output
+ * those games make up. The output is forced to disk before the
+ * checkpoint is written, and the checkpoint is written to a temporary
+ * file that is then renamed over the old one, so after a crash the
+ * checkpoint on disk always describes output that is there in full.
+ * Resuming cuts the output back to the checkpoint's length, dropping
+ * whatever was written after it, and carries on from its input offset.
+ * A reject file written next to the output is checkpointed the same way.
+ *
+ * A checkpoint also holds a fingerprint of the run's job, its inputs and
+ * whatever else shapes its output, and a run is only resumed from a
+ * checkpoint with the same fingerprint. A run started afresh saves an
+ * empty checkpoint before it writes anything, so one left by an earlier
+ * run is never taken for its own.
+ */
+public final class Checkpoint {
+
+    private final Path path;
+    private final String job;
+    private final FileChannel output;
+    private final FileChannel rejects;
+
+    private int file;
+    private String fileName = "";
+    private long offset;
+    private long games;
+
+    private Checkpoint(Path path, String job, FileChannel output,
+            FileChannel rejects) {
+        this.path = path;
+        this.job = job;
+        this.output = output;
+        this.rejects = rejects;
+    }
+
+    /**
+     * Start a run from the beginning, saving checkpoints to path. An empty
+     * checkpoint is saved at once, replacing any left there before.
+     *
+     * @param path the checkpoint file
+     * @param job the fingerprint of the run, see `fingerprint`
+     * @param output the channel the run writes its output to, empty
+     * @param rejects the channel it writes rejected games to, empty, or
+     *     null
+     * @return the checkpoint
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public static Checkpoint start(Path path, String job, FileChannel output,
+            FileChannel rejects) throws IOException {
+        Checkpoint checkpoint = new Checkpoint(path, job, output, rejects);
+        checkpoint.save(0, "", 0, 0);
+        return checkpoint;
+    }
+
+    /**
+     * @param parts the inputs and options that decide a run's output
+     * @return a fingerprint of them to tell runs apart by
+     */
+    public static String fingerprint(List<String> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Continue the run whose last checkpoint was saved to path. The output
+     * is cut back to the length the checkpoint recorded. A run that
+     * stopped before saving its first checkpoint has none, and starts over
+     * with its output cut back to nothing.
+     *
+     * @param path the checkpoint file
+     * @param job the fingerprint of the run, which must be the one the
+     *     checkpoint was saved with
+     * @param output the channel the run wrote its output to, in append
+     *     mode
+     * @param rejects the channel it wrote rejected games to, in append
+     *     mode, or null
+     * @return the checkpoint to go on from
+     * @throws IOException if the checkpoint cannot be read, is for another
+     *     job or does not match the output
+     */
+    public static Checkpoint resume(Path path, String job,
+            FileChannel output, FileChannel rejects) throws IOException {
+        if (!Files.exists(path)) {
+            output.truncate(0);
+            if (rejects != null) {
+                rejects.truncate(0);
+            }
+            return start(path, job, output, rejects);
+        }
+        Properties saved = new Properties();
+        saved.load(new StringReader(new String(Files.readAllBytes(path),
+            StandardCharsets.UTF_8)));
+        if (!job.equals(saved.getProperty("job"))) {
+            throw new IOException("checkpoint " + path + " is for another "
+                + "run: its inputs or output options differ");
+        }
+        Checkpoint checkpoint = new Checkpoint(path, job, output, rejects);
+        try {
+            checkpoint.file = Integer.parseInt(saved.getProperty("file"));
+            checkpoint.fileName = saved.getProperty("name", "");
+            checkpoint.offset = Long.parseLong(saved.getProperty("offset"));
+            checkpoint.games = Long.parseLong(saved.getProperty("games"));
+            cut(output, saved.getProperty("output"), path);
+            if (rejects != null) {
+                cut(rejects, saved.getProperty("rejects", "0"), path);
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("bad checkpoint " + path, e);
+        }
+        return checkpoint;
+    }
+
+    private static void cut(FileChannel channel, String length, Path path)
+            throws IOException {
+        long written = Long.parseLong(length);
+        if (channel.size() < written) {
+            throw new IOException("output is shorter than the " + written
+                + " bytes checkpoint " + path + " recorded");
+        }
+        channel.truncate(written);
+    }
+
+    /**
+     * @return the index of the input file to go on with
+     */
+    public int file() {
+        return file;
+    }
+
+    /**
+     * @return the name of that file as it was given, or "" past the last
+     */
+    public String fileName() {
+        return fileName;
+    }
+
+    /**
+     * @return the offset in that file to go on from
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * @return how many games were done
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * Record that the run has done games games and goes on from offset in
+     * input file number file. Everything written to the output and the
+     * rejects so far must have been flushed to their channels.
+     *
+     * @param file the index of the input file to go on with
+     * @param fileName that file's name, to check on resuming
+     * @param offset the offset in that file to go on from
+     * @param games how many games are done
+     * @throws IOException if the output or the checkpoint cannot be
+     *     forced to disk
+     */
+    public void save(int file, String fileName, long offset, long games)
+            throws IOException {
+        output.force(false);
+        String text = "job=" + job + "\n"
+            + "file=" + file + "\n"
+            + "name=" + fileName.replace("\\", "\\\\") + "\n"
+            + "offset=" + offset + "\n"
+            + "games=" + games + "\n"
+            + "output=" + output.position() + "\n";
+        if (rejects != null) {
+            rejects.force(false);
+            text += "rejects=" + rejects.position() + "\n";
+        }
+        writeAtomically(path, text);
+        this.file = file;
+        this.fileName = fileName;
+        this.offset = offset;
+        this.games = games;
+    }
+
+    /**
+     * Replace the file at path with text, so that a reader sees either the
+     * old content or all of the new, even after a crash.
+     *
+     * @param path the file to write
+     * @param text its new content
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeAtomically(Path path, String text)
+            throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(
+                text.getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,162 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a PGN database of random legal games for load testing.
+ *
+ * Every game is played out on a `Position` with moves picked at random
+ * from `MoveGenerator`, weighted towards castling, promotion and en
+ * passant so that each shows up often, and written in SAN with the
+ * Seven Tag Roster. Games end in mate, stalemate, the fifty-move rule,
+ * bare kings or a ply limit, so long endgames are common. The same seed
+ * always produces the same file.
+ *
+ * Usage: java CorpusGenerator out.pgn megabytes [seed]
+ */
+public class CorpusGenerator {
+
+    private static final int MAX_PLIES = 600;
+    private static final int LINE_WIDTH = 79;
+
+    private final SplittableRandom random;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] scratch = new int[MoveGenerator.MAX_MOVES];
+    private final StringBuilder san = new StringBuilder(8);
+
+    public CorpusGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        long limit = Long.parseLong(args[1]) << 20;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        CorpusGenerator generator = new CorpusGenerator(seed);
+        long bytes = 0;
+        int games = 0;
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(
+                Paths.get(args[0]), StandardCharsets.US_ASCII), 1 << 16)) {
+            while (bytes < limit) {
+                String game = generator.game(++games);
+                out.write(game);
+                bytes += game.length();
+            }
+        }
+        System.out.format("%d games, %.1f MB%n", games, bytes / 1e6);
+    }
+
+    /**
+     * Play one random game and return it as PGN, followed by a blank line.
+     *
+     * @param round the game's number, used for its tags
+     * @return the PGN text of the game
+     */
+    public String game(int round) {
+        Position position = Position.initial();
+        StringBuilder movetext = new StringBuilder(2048);
+        int lineStart = 0;
+        String result = "*";
+        int n = MoveGenerator.legalMoves(position, moves);
+        for (int ply = 0; ; ply++) {
+            if (n == 0) {
+                if (!position.inCheck()) {
+                    result = "1/2-1/2";
+                } else {
+                    result = position.sideToMove() == Position.WHITE
+                        ? "0-1" : "1-0";
+                }
+                break;
+            } else if (position.halfmoveClock() >= 100
+                    || bareKings(position)) {
+                result = "1/2-1/2";
+                break;
+            } else if (ply == MAX_PLIES) {
+                break;
+            }
+            int move = pick(position, n);
+            san.setLength(0);
+            if (position.sideToMove() == Position.WHITE) {
+                san.append(position.fullmoveNumber()).append(". ");
+            }
+            San.format(position, move, scratch, san);
+            lineStart = append(movetext, lineStart, san);
+            position.makeMove(move);
+            n = MoveGenerator.legalMoves(position, moves);
+        }
+        san.setLength(0);
+        san.append(result);
+        append(movetext, lineStart, san);
+
+        StringBuilder sb = new StringBuilder(movetext.length() + 256);
+        tag(sb, "Event", "Synthetic game " + round);
+        tag(sb, "Site", "?");
+        tag(sb, "Date", "????.??.??");
+        tag(sb, "Round", Integer.toString(round));
+        tag(sb, "White", "Random " + random.nextInt(1000));
+        tag(sb, "Black", "Random " + random.nextInt(1000));
+        tag(sb, "Result", result);
+        sb.append('\n').append(movetext).append("\n\n");
+        return sb.toString();
+    }
+
+    /**
+     * Pick one of the n legal moves in `moves`. Special moves are rare in
+     * random play, so most of the time one is taken whenever it is there.
+     */
+    private int pick(Position position, int n) {
+        int special = 0;
+        for (int i = 0; i < n; i++) {
+            if (isSpecial(position, moves[i])) {
+                scratch[special++] = moves[i];
+            }
+        }
+        if (special > 0 && random.nextInt(4) != 0) {
+            return scratch[random.nextInt(special)];
+        }
+        return moves[random.nextInt(n)];
+    }
+
+    // castling, promotion and en passant
+    private static boolean isSpecial(Position position, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = Position.typeOf(position.pieceAt(from));
+        return (type == San.KING && Math.abs(to - from) == 2)
+            || Move.promotion(move) != 0
+            || (type == San.PAWN && to == position.epSquare());
+    }
+
+    private static boolean bareKings(Position position) {
+        return Long.bitCount(position.occupied()) == 2;
+    }
+
+    /**
+     * Append word to the movetext, starting a new line rather than going
+     * past `LINE_WIDTH` columns.
+     *
+     * @return the index where the current line starts
+     */
+    private static int append(StringBuilder movetext, int lineStart,
+            CharSequence word) {
+        if (movetext.length() > lineStart) {
+            if (movetext.length() - lineStart + 1 + word.length()
+                    > LINE_WIDTH) {
+                movetext.append('\n');
+                lineStart = movetext.length();
+            } else {
+                movetext.append(' ');
+            }
+        }
+        movetext.append(word);
+        return lineStart;
+    }
+
+    private static void tag(StringBuilder sb, String name, String value) {
+        sb.append('[').append(name).append(" \"").append(value)
+            .append("\"]\n");
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Writes the FEN of a position that changes a move at a time, reusing one
+ * buffer.
+ *
+ * The writer remembers the piece bitboards it last saw and keeps a board of
+ * FEN letters in step with them square by square. Only ranks whose pieces
+ * changed are rewritten, which after most moves is one or two, and the
+ * placement is moved in the buffer only as far as their new lengths
+ * require. Castling and en passant fields come from tables built once,
+ * and the move counters are counted up digit by digit.
+ *
+ * @see http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm#c16.1
+ */
+public final class FenWriter implements CharSequence {
+
+    private static final String[] CASTLING = new String[16];
+    private static final String[] EN_PASSANT = new String[64];
+
+    static {
+        for (int rights = 0; rights < 16; rights++) {
+            StringBuilder sb = new StringBuilder(4);
+            for (int right = 0; right < 4; right++) {
+                if ((rights & (1 << right)) != 0) {
+                    sb.append("KQkq".charAt(right));
+                }
+            }
+            CASTLING[rights] = rights == 0 ? "-" : sb.toString();
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            EN_PASSANT[sq] = "" + (char) ('a' + Bitboards.fileOf(sq))
+                + (char) ('1' + Bitboards.rankOf(sq));
+        }
+    }
+
+    // the bitboards the placement was written from, the same as a board
+    // of FEN letters, each rank's text and where it starts in the buffer
+    private final long[] seen = new long[12];
+    private final char[] board = new char[64];
+    private final char[][] ranks = new char[8][8];
+    private final int[] rankLengths = new int[8];
+    private final int[] rankStart = new int[9];
+    private final char[] fen = new char[96];
+    private int length;
+    private final Clock halfmoveClock = new Clock();
+    private final Clock fullmoveNumber = new Clock();
+
+    public FenWriter() {
+        // nothing seen yet: every rank is empty
+        for (int rank = 0; rank < 8; rank++) {
+            writeRank(rank);
+        }
+        place(-1L);
+    }
+
+    /**
+     * Bring the FEN up to date with position and return it. The writer is
+     * itself the text returned, a view of its buffer that the next call
+     * overwrites, so copy it with `toString()` to keep it.
+     *
+     * @param position the position to write
+     * @return the position's FEN, all six fields
+     */
+    public CharSequence update(Position position) {
+        long changed = 0;
+        for (int piece = 0; piece < 12; piece++) {
+            long b = position.pieces(piece);
+            long diff = b ^ seen[piece];
+            if (diff == 0) {
+                continue;
+            }
+            // a square another piece has just taken is left to that piece
+            char letter = Position.letterOf(piece);
+            for (long gone = diff & seen[piece]; gone != 0;
+                    gone &= gone - 1) {
+                int sq = Long.numberOfTrailingZeros(gone);
+                if (board[sq] == letter) {
+                    board[sq] = 0;
+                }
+            }
+            for (long come = diff & b; come != 0; come &= come - 1) {
+                board[Long.numberOfTrailingZeros(come)] = letter;
+            }
+            changed |= diff;
+            seen[piece] = b;
+        }
+        if (changed != 0) {
+            for (long c = changed; c != 0; ) {
+                int rank = Bitboards.rankOf(Long.numberOfTrailingZeros(c));
+                writeRank(rank);
+                c &= ~Bitboards.RANKS[rank];
+            }
+            place(changed);
+        }
+        int n = rankStart[8];
+        fen[n++] = position.sideToMove() == Position.WHITE ? 'w' : 'b';
+        fen[n++] = ' ';
+        n = append(CASTLING[position.castling()], n);
+        fen[n++] = ' ';
+        int ep = position.epSquare();
+        n = append(ep == Position.NONE ? "-" : EN_PASSANT[ep], n);
+        fen[n++] = ' ';
+        n = append(halfmoveClock, position.halfmoveClock(), n);
+        fen[n++] = ' ';
+        length = append(fullmoveNumber, position.fullmoveNumber(), n);
+        return this;
+    }
+
+    private void writeRank(int rank) {
+        char[] text = ranks[rank];
+        int n = 0;
+        int empty = 0;
+        for (int sq = 8 * rank; sq < 8 * rank + 8; sq++) {
+            char c = board[sq];
+            if (c == 0) {
+                empty++;
+                continue;
+            }
+            if (empty > 0) {
+                text[n++] = (char) ('0' + empty);
+                empty = 0;
+            }
+            text[n++] = c;
+        }
+        if (empty > 0) {
+            text[n++] = (char) ('0' + empty);
+        }
+        rankLengths[rank] = n;
+    }
+
+    /**
+     * Copy the text of the changed ranks into the buffer, each followed by
+     * a slash or, after the last, a space. Ranks are written from 8 down,
+     * so an unchanged rank is copied too when one above it changed length;
+     * copying stops once nothing below has changed or moved.
+     */
+    private void place(long changed) {
+        int top = Bitboards.rankOf(63 - Long.numberOfLeadingZeros(changed));
+        int n = rankStart[7 - top];
+        for (int rank = top; rank >= 0; rank--) {
+            long below = changed & (-1L >>> (56 - 8 * rank));
+            if (below == 0 && n == rankStart[7 - rank]) {
+                return;
+            }
+            rankStart[7 - rank] = n;
+            System.arraycopy(ranks[rank], 0, fen, n, rankLengths[rank]);
+            n += rankLengths[rank];
+            fen[n++] = rank > 0 ? '/' : ' ';
+        }
+        rankStart[8] = n;
+    }
+
+    private int append(String text, int n) {
+        text.getChars(0, text.length(), fen, n);
+        return n + text.length();
+    }
+
+    private int append(Clock clock, int value, int n) {
+        clock.set(value);
+        for (int i = 0; i < clock.length; i++) {
+            fen[n++] = clock.digits[i];
+        }
+        return n;
+    }
+
+    /**
+     * The decimal text of a move counter. Counters mostly go up by one or
+     * back to zero, so the digits are counted up in place rather than
+     * formatted anew.
+     */
+    private static final class Clock {
+
+        private final char[] digits = new char[10];
+        private int length;
+        private int value = -1;
+
+        void set(int newValue) {
+            if (newValue == value + 1 && value >= 0) {
+                increment();
+            } else if (newValue != value) {
+                String text = Integer.toString(newValue);
+                text.getChars(0, text.length(), digits, 0);
+                length = text.length();
+            }
+            value = newValue;
+        }
+
+        private void increment() {
+            int i = length - 1;
+            while (i >= 0 && digits[i] == '9') {
+                digits[i--] = '0';
+            }
+            if (i >= 0) {
+                digits[i]++;
+            } else {
+                System.arraycopy(digits, 0, digits, 1, length++);
+                digits[0] = '1';
+            }
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return fen[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(fen, 0, length);
+    }
+}
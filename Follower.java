@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Follows a PGN file that other programs keep appending games to, like
+ * `tail -f`, formatting each game once it is complete.
+ *
+ * The offset just past the last game handled is kept in `<file>.offset`
+ * and saved after each batch of games has been written, so a restarted
+ * follower picks up where the last one stopped; while a large backlog is
+ * being read it is also saved every `SAVE_INTERVAL`, so a crash part way
+ * through does not mean reading it all again. A game counts as complete
+ * once another game starts after it or, for the last game in the file,
+ * once its movetext ends with a result. The file's directory is watched
+ * for changes, with a poll every `POLL_MILLIS` as a fallback, so a game
+ * is written out within milliseconds of being appended. A file that has
+ * become shorter than the offset is taken to have been replaced and is
+ * read from its start. With a reject stream set, a game that fails to
+ * format is reported there and skipped rather than ending the follow.
+ */
+public final class Follower {
+
+    private static final long POLL_MILLIS = 250;
+    private static final long SAVE_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    private final Path file;
+    private final Path offsetFile;
+    private final Predicate<PgnHeader> filter;
+    private final Function<ByteBuffer, String> format;
+    private final PrintStream out;
+    private PrintStream rejects;
+    private long offset;
+
+    /**
+     * @param file the PGN file to follow
+     * @param filter the test for a game's tags, or null to take all games
+     * @param format turns the text of one game into its output
+     * @param out where the formatted games are written
+     * @throws IOException if a saved offset cannot be read
+     */
+    public Follower(Path file, Predicate<PgnHeader> filter,
+            Function<ByteBuffer, String> format, PrintStream out)
+            throws IOException {
+        this.file = file;
+        this.offsetFile = Paths.get(file + ".offset");
+        this.filter = filter;
+        this.format = format;
+        this.out = out;
+        if (Files.exists(offsetFile)) {
+            offset = Long.parseLong(new String(Files.readAllBytes(offsetFile),
+                StandardCharsets.US_ASCII).trim());
+        }
+    }
+
+    /**
+     * Write each game that fails to format to rejects, one line per game,
+     * the way `Batch` does, and go on with the next.
+     *
+     * @param rejects where to write the failed games
+     */
+    public void setRejects(PrintStream rejects) {
+        this.rejects = rejects;
+    }
+
+    /**
+     * @return the offset just past the last game handled
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Handle the games completed since the last call, then save the
+     * offset past them.
+     *
+     * @return how many games were handled, filtered out ones included
+     * @throws IOException if the file cannot be read or the offset saved
+     */
+    public int poll() throws IOException {
+        int handled = 0;
+        int unsaved = 0;
+        long saved = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file)) {
+            long size = channel.size();
+            if (size < offset) {
+                offset = 0;
+            }
+            if (size == offset) {
+                return 0;
+            }
+            channel.position(offset);
+            GameReader games = new GameReader(channel, offset);
+            // a game is known to be complete once the next one starts
+            PgnGame previous = null;
+            while (games.hasNext()) {
+                PgnGame game = games.next();
+                if (previous != null) {
+                    handle(previous);
+                    handled++;
+                    unsaved++;
+                    if (System.nanoTime() - saved > SAVE_INTERVAL) {
+                        save();
+                        unsaved = 0;
+                        saved = System.nanoTime();
+                    }
+                }
+                previous = game;
+            }
+            if (previous != null && isComplete(previous.bytes())) {
+                handle(previous);
+                handled++;
+                unsaved++;
+            }
+        }
+        if (unsaved > 0) {
+            save();
+        }
+        return handled;
+    }
+
+    /**
+     * Flush what the games handled so far wrote, then save the offset past
+     * them.
+     */
+    private void save() throws IOException {
+        out.flush();
+        if (rejects != null) {
+            rejects.flush();
+        }
+        Checkpoint.writeAtomically(offsetFile, offset + "\n");
+    }
+
+    private void handle(PgnGame game) {
+        ByteBuffer bytes = game.bytes();
+        offset = game.offset() + game.length();
+        try {
+            if (filter == null || filter.test(PgnHeader.parse(bytes))) {
+                out.print(format.apply(bytes));
+            }
+        } catch (RuntimeException e) {
+            if (rejects == null) {
+                throw e;
+            }
+            StringBuilder sb = new StringBuilder();
+            Batch.reject(sb, file, game.offset(), e);
+            rejects.print(sb);
+        }
+    }
+
+    /**
+     * @return whether the last token of game is a game termination marker
+     */
+    private static boolean isComplete(ByteBuffer game) {
+        int end = game.limit();
+        while (end > game.position() && isSpace(game.get(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > game.position() && !isSpace(game.get(start - 1))) {
+            start--;
+        }
+        for (String result : RESULTS) {
+            if (end - start == result.length()
+                    && matches(game, start, result)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(ByteBuffer buf, int at, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (buf.get(at + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * Handle the games in the file now and then each game appended to it,
+     * until the thread is interrupted.
+     *
+     * @throws IOException if the file cannot be read or watched
+     * @throws InterruptedException if the thread is interrupted
+     */
+    public void follow() throws IOException, InterruptedException {
+        Path directory = file.toAbsolutePath().getParent();
+        try (WatchService watcher = FileSystems.getDefault()
+                .newWatchService()) {
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+            while (true) {
+                poll();
+                WatchKey key = watcher.poll(POLL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    // which file changed does not matter: polling is cheap
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Steps back and forth through the moves of one game on a single
+ * `Position`. The SAN moves are resolved once, when the cursor is made;
+ * after that each step is one `makeMove` or `unmakeMove`, so moving by a
+ * ply costs the same at any point of the game.
+ */
+public final class GameCursor {
+
+    private final Position position;
+    private final int[] moves;
+    private final long[] undos;
+    private int ply;
+
+    private GameCursor(Position position, int[] moves) {
+        this.position = position;
+        this.moves = moves;
+        this.undos = new long[moves.length];
+    }
+
+    /**
+     * Resolve the moves of game and return a cursor on its starting
+     * position.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @return a cursor at ply 0
+     * @throws IllegalArgumentException if a move is unreadable, illegal or
+     *     ambiguous
+     */
+    public static GameCursor of(ByteBuffer game) {
+        PgnTokenizer tokens = new PgnTokenizer(game);
+        tokens.setSkipAnnotations(true);
+        Position position = Position.initial();
+        int[] scratch = new int[MoveGenerator.MAX_MOVES];
+        int[] moves = new int[128];
+        long[] undos = new long[128];
+        int n = 0;
+        int token;
+        while ((token = tokens.next()) != PgnTokenizer.END) {
+            if (token != PgnTokenizer.SAN) {
+                continue;
+            }
+            int san = PgnReader.decodeMove(tokens);
+            int move = PgnReader.canMove(position, san, scratch);
+            if (move == Move.NONE) {
+                throw new IllegalArgumentException("illegal move "
+                    + tokens.text() + " in " + position.fen());
+            }
+            if (n == moves.length) {
+                moves = Arrays.copyOf(moves, n * 2);
+                undos = Arrays.copyOf(undos, n * 2);
+            }
+            moves[n] = move;
+            undos[n++] = position.makeMove(move);
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            position.unmakeMove(moves[i], undos[i]);
+        }
+        return new GameCursor(position, Arrays.copyOf(moves, n));
+    }
+
+    /**
+     * @return the position at the current ply; it changes as the cursor
+     *     moves
+     */
+    public Position position() {
+        return position;
+    }
+
+    /**
+     * @return the number of moves played to reach the current position
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * @return the number of moves in the game
+     */
+    public int length() {
+        return moves.length;
+    }
+
+    /**
+     * @return the move played at ply i (0-based), packed by `Move`
+     */
+    public int move(int i) {
+        return moves[i];
+    }
+
+    /**
+     * Play the next move.
+     *
+     * @return false if the cursor was already at the end of the game
+     */
+    public boolean forward() {
+        if (ply == moves.length) {
+            return false;
+        }
+        undos[ply] = position.makeMove(moves[ply]);
+        ply++;
+        return true;
+    }
+
+    /**
+     * Take back the last move.
+     *
+     * @return false if the cursor was already at the start of the game
+     */
+    public boolean back() {
+        if (ply == 0) {
+            return false;
+        }
+        ply--;
+        position.unmakeMove(moves[ply], undos[ply]);
+        return true;
+    }
+
+    /**
+     * Step forward or back until the position after target moves is
+     * reached.
+     *
+     * @param target a ply from 0 to `length()`
+     */
+    public void seek(int target) {
+        if (target < 0 || target > moves.length) {
+            throw new IndexOutOfBoundsException("ply " + target + " of "
+                + moves.length);
+        }
+        while (ply < target) {
+            forward();
+        }
+        while (ply > target) {
+            back();
+        }
+    }
+}
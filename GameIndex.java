@@ -0,0 +1,312 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A sidecar index of where each game of a PGN file starts, so that any
+ * game or run of games can be read with one positioned read.
+ *
+ * The index lives next to the file as `<file>.idx`. After a header come
+ * fixed-size records, one per game in file order: the game's byte offset
+ * and length and the hashes of a few tags, `HASHED_TAGS`, so record i is
+ * found without reading the others. The index is built in one streaming
+ * pass with `GameReader`. When the file has grown since, only the last
+ * indexed game, which the appended text may have continued, and the games
+ * after it are read again; a file that has shrunk is indexed afresh.
+ */
+public final class GameIndex implements Closeable {
+
+    /**
+     * The tags whose value hashes are kept for each game, in record order.
+     */
+    public static final String[] HASHED_TAGS = {
+        "Event", "White", "Black", "Result"
+    };
+
+    // "PGNIDX", then the format version
+    private static final long MAGIC = 0x5047_4e49_4458_0001L;
+    // magic, size of the PGN file indexed, number of games
+    private static final int HEADER = 8 + 8 + 4;
+    // offset, length, the tag hashes
+    private static final int RECORD = 8 + 4 + 4 * HASHED_TAGS.length;
+
+    private final FileChannel pgn;
+    private final ByteBuffer records;
+    private final int size;
+
+    private GameIndex(FileChannel pgn, ByteBuffer records, int size) {
+        this.pgn = pgn;
+        this.records = records;
+        this.size = size;
+    }
+
+    /**
+     * Open the index of a PGN file, building it or bringing it up to date
+     * with the file first if need be.
+     *
+     * @param file the PGN file
+     * @return the index, holding the file open for reading games
+     * @throws IOException if the file or its index cannot be read or the
+     *     index cannot be written
+     */
+    public static GameIndex open(Path file) throws IOException {
+        FileChannel pgn = FileChannel.open(file);
+        try (FileChannel index = FileChannel.open(indexPath(file),
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            int size = update(pgn, index);
+            ByteBuffer records = index.map(FileChannel.MapMode.READ_ONLY,
+                HEADER, (long) size * RECORD);
+            return new GameIndex(pgn, records, size);
+        } catch (IOException | RuntimeException e) {
+            pgn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the index file of the PGN file named file
+     */
+    public static Path indexPath(Path file) {
+        return Paths.get(file + ".idx");
+    }
+
+    /**
+     * Index the games of pgn that the index does not cover yet. The
+     * header is written last, so an update cut short leaves the index
+     * describing the file as it was before.
+     *
+     * @return the number of games indexed
+     */
+    private static int update(FileChannel pgn, FileChannel index)
+            throws IOException {
+        long fileSize = pgn.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        int size = 0;
+        long indexed = -1;
+        if (index.read(header, 0) == HEADER && header.getLong(0) == MAGIC
+                && index.size() >= HEADER
+                    + (long) header.getInt(16) * RECORD) {
+            indexed = header.getLong(8);
+            size = header.getInt(16);
+        }
+        if (indexed == fileSize) {
+            return size;
+        }
+        long from = 0;
+        if (indexed > fileSize) {
+            size = 0;
+        } else if (size > 0) {
+            // the appended text may continue the last game
+            ByteBuffer last = ByteBuffer.allocate(8);
+            index.read(last, HEADER + (long) (size - 1) * RECORD);
+            from = last.getLong(0);
+            size--;
+        }
+
+        pgn.position(from);
+        GameReader games = new GameReader(pgn, from);
+        ByteBuffer out = ByteBuffer.allocate(RECORD * 4096);
+        long at = HEADER + (long) size * RECORD;
+        while (games.hasNext()) {
+            PgnGame game = games.next();
+            PgnHeader tags = PgnHeader.parse(game.bytes());
+            out.putLong(game.offset()).putInt(game.length());
+            for (String tag : HASHED_TAGS) {
+                out.putInt(hash(tags.get(tag)));
+            }
+            size++;
+            if (!out.hasRemaining()) {
+                at += write(index, out, at);
+            }
+        }
+        at += write(index, out, at);
+        index.truncate(at);
+        index.force(false);
+
+        header.clear();
+        header.putLong(MAGIC).putLong(fileSize).putInt(size).flip();
+        write(index, header, 0);
+        index.force(false);
+        return size;
+    }
+
+    private static int write(FileChannel channel, ByteBuffer buffer,
+            long position) throws IOException {
+        buffer.flip();
+        int n = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+        return n;
+    }
+
+    /**
+     * @return the hash kept for a tag value; a missing tag hashes as an
+     *     empty one
+     */
+    public static int hash(String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+    /**
+     * @return the number of games in the file
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param game the game's number, counting from 0
+     * @return the byte offset in the file where game starts
+     */
+    public long offset(int game) {
+        return records.getLong(record(game));
+    }
+
+    /**
+     * @param game the game's number, counting from 0
+     * @return the game's length in bytes, trailing blank lines included
+     */
+    public int length(int game) {
+        return records.getInt(record(game) + 8);
+    }
+
+    /**
+     * Return the hash of one of the `HASHED_TAGS` of game, to compare with
+     * `hash(value)` and so pick out the games that may have that value
+     * without reading them.
+     *
+     * @param game the game's number, counting from 0
+     * @param tag one of `HASHED_TAGS`
+     * @return the hash of the tag's value in game
+     * @throws IllegalArgumentException if tag is not hashed
+     */
+    public int tagHash(int game, String tag) {
+        int i = Arrays.asList(HASHED_TAGS).indexOf(tag);
+        if (i < 0) {
+            throw new IllegalArgumentException("tag " + tag
+                + " is not indexed");
+        }
+        return records.getInt(record(game) + 12 + 4 * i);
+    }
+
+    private int record(int game) {
+        if (game < 0 || game >= size) {
+            throw new IndexOutOfBoundsException("game " + game + " of "
+                + size);
+        }
+        return game * RECORD;
+    }
+
+    /**
+     * Read one game straight from its offset.
+     *
+     * @param game the game's number, counting from 0
+     * @return the game
+     * @throws IOException if the file cannot be read
+     */
+    public PgnGame read(int game) throws IOException {
+        return read(game, game + 1).get(0);
+    }
+
+    /**
+     * Read the games numbered from up to but not including to, which lie
+     * next to each other in the file, with a single read.
+     *
+     * @param from the number of the first game, counting from 0
+     * @param to one past the number of the last game
+     * @return the games, in order
+     * @throws IOException if the file cannot be read
+     */
+    public List<PgnGame> read(int from, int to) throws IOException {
+        List<PgnGame> games = new ArrayList<>(Math.max(0, to - from));
+        if (from >= to) {
+            return games;
+        }
+        long start = offset(from);
+        long end = offset(to - 1) + length(to - 1);
+        ByteBuffer span = ByteBuffer.allocate(Math.toIntExact(end - start));
+        while (span.hasRemaining()) {
+            if (pgn.read(span, start + span.position()) < 0) {
+                throw new IOException("game index out of date with file");
+            }
+        }
+        byte[] bytes = span.array();
+        for (int game = from; game < to; game++) {
+            int at = (int) (offset(game) - start);
+            games.add(new PgnGame(offset(game),
+                Arrays.copyOfRange(bytes, at, at + length(game))));
+        }
+        return games;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pgn.close();
+    }
+
+    /**
+     * Build or update the index of a PGN file and print the number of
+     * games in it, or print the games numbered first to last, both
+     * included and counting from 1, as they appear in the file. A game
+     * number that is not in the file prints the usage and exits with
+     * status 1.
+     *
+     * Usage: java GameIndex file.pgn [first [last]]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            usage("expected a file and up to two game numbers");
+        }
+        try (GameIndex index = open(Paths.get(args[0]))) {
+            if (args.length == 1) {
+                System.out.format("%d games%n", index.size());
+                return;
+            }
+            int first = gameNumber(args[1], 1, index.size());
+            int last = args.length > 2
+                ? gameNumber(args[2], first, index.size()) : first;
+            // counting from 0, read takes first - 1 up to but not
+            // including last
+            for (PgnGame game : index.read(first - 1, last)) {
+                System.out.print(game.text());
+            }
+        }
+    }
+
+    /**
+     * @return text as a game number from min to max
+     */
+    private static int gameNumber(String text, int min, int max) {
+        try {
+            int n = Integer.parseInt(text);
+            if (n >= min && n <= max) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        usage(max < min ? "the file has no game " + text
+            : "game numbers run from " + min + " to " + max + ", not "
+                + text);
+        return min;
+    }
+
+    /**
+     * Print problem and the usage, and exit with status 1.
+     */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("usage: java GameIndex file.pgn [first [last]]");
+        System.exit(1);
+    }
+}
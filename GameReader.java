@@ -0,0 +1,311 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Streams the games of a PGN database one at a time.
+ *
+ * A new game starts at every line that begins with `[Event` and follows a
+ * blank line, so an `[Event` inside a multi-line comment is not taken for
+ * one. Only the game being assembled and a fixed-size read buffer are held
+ * in memory, so heap use depends on the longest game and not on the size
+ * of the file.
+ *
+ * With a filter set, each game's tag section is tested as soon as it has
+ * been read. The rest of a game that fails is passed over a line at a
+ * time up to the next game boundary, without being kept or returned.
+ */
+public class GameReader implements Iterator<PgnGame>, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] EVENT = {'[', 'E', 'v', 'e', 'n', 't'};
+
+    private final ReadableByteChannel in;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean eof;
+
+    // the game being assembled; bytes [0, lineStart) are complete lines
+    private byte[] game = new byte[4096];
+    private int gameLength;
+    private int lineStart;
+    private long gameOffset;
+
+    // whether the line being read, and the one before it, are blank so far
+    private boolean lineBlank = true;
+    private boolean afterBlankLine;
+
+    private PgnGame next;
+
+    // which games to return, whether the current game's tags have been
+    // tested, and whether it failed and is being passed over
+    private Predicate<PgnHeader> filter;
+    private boolean tested;
+    private boolean skipping;
+
+    // no game starting at or after this offset is returned
+    private long stop = Long.MAX_VALUE;
+
+    /**
+     * Creates a reader over in, whose first byte is at offset in its file.
+     *
+     * @param in the channel to read PGN text from
+     * @param offset the file offset of the channel's current position
+     */
+    public GameReader(ReadableByteChannel in, long offset) {
+        this.in = in;
+        this.gameOffset = offset;
+        buffer.flip();
+    }
+
+    /**
+     * Opens the file named by path for streaming.
+     *
+     * @param path the relative or absolute path of the file to read
+     * @return a reader positioned at the first game in the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static GameReader open(String path) throws IOException {
+        return new GameReader(Files.newByteChannel(Paths.get(path)), 0);
+    }
+
+    /**
+     * Find the first game that starts at or after from, by the same rule
+     * the reader splits games on, so that a reader started there sees the
+     * same games as one that read the file from the start. A scan from an
+     * arbitrary offset thereby resynchronizes on game boundaries.
+     *
+     * @param channel the PGN file
+     * @param from the offset to search from
+     * @return the offset of the game, or the file size if there is none
+     * @throws IOException if the file cannot be read
+     */
+    public static long nextGameStart(FileChannel channel, long from)
+            throws IOException {
+        if (from == 0) {
+            return 0;
+        }
+        long size = channel.size();
+        // whether the line holding from - 1 is blank up to that byte
+        boolean blank = true;
+        for (long i = from - 2; i >= 0 && blank; i--) {
+            byte b = byteAt(channel, i);
+            if (b == '\n') {
+                break;
+            }
+            blank = b == ' ' || b == '\t' || b == '\r';
+        }
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        for (long pos = from - 1; pos < size; ) {
+            buf.clear();
+            int n = channel.read(buf, pos);
+            for (int i = 0; i < n; i++) {
+                byte b = buf.get(i);
+                if (b == '\n') {
+                    long next = pos + i + 1;
+                    if (blank && startsGame(channel, next)) {
+                        return next;
+                    }
+                    blank = true;
+                } else if (b != ' ' && b != '\t' && b != '\r') {
+                    blank = false;
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    private static byte byteAt(FileChannel channel, long pos)
+            throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        channel.read(one, pos);
+        return one.get(0);
+    }
+
+    private static boolean startsGame(FileChannel channel, long pos)
+            throws IOException {
+        ByteBuffer start = ByteBuffer.allocate(EVENT.length);
+        while (start.hasRemaining()) {
+            if (channel.read(start, pos + start.position()) < 0) {
+                return false;
+            }
+        }
+        return Arrays.equals(start.array(), EVENT);
+    }
+
+    /**
+     * Return only the games whose tag section filter accepts, from the
+     * next game read on.
+     *
+     * @param filter the test for a game's tags, or null to return all
+     */
+    public void setFilter(Predicate<PgnHeader> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Return no game that starts at or after offset. Passing over rejected
+     * games then also ends there, rather than running on to the next game
+     * the filter accepts.
+     *
+     * @param offset the file offset to stop at
+     */
+    public void stopAt(long offset) {
+        this.stop = offset;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readGame();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public PgnGame next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        PgnGame game = next;
+        next = null;
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private PgnGame readGame() throws IOException {
+        while (gameOffset < stop) {
+            if (!buffer.hasRemaining() && (eof || !fill())) {
+                return finish();
+            }
+            byte b = buffer.get();
+            append(b);
+            if (b == '\n') {
+                PgnGame done = null;
+                if ((lineStart > 0 || skipping) && afterBlankLine
+                        && startsGame(lineStart)) {
+                    done = emit(lineStart);
+                } else if (skipping) {
+                    drop(gameLength);
+                } else if (lineBlank && filter != null && !tested
+                        && !isBlank(lineStart)) {
+                    // the blank line after the tags
+                    tested = true;
+                    skipping = !accepts(lineStart);
+                }
+                lineStart = gameLength;
+                afterBlankLine = lineBlank;
+                lineBlank = true;
+                if (done != null || gameOffset >= stop) {
+                    return done;
+                }
+            } else if (b != ' ' && b != '\t' && b != '\r') {
+                lineBlank = false;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Emits whatever is left once the channel is exhausted. The last line
+     * may have no trailing newline and may still open a game of its own.
+     */
+    private PgnGame finish() {
+        if ((lineStart > 0 || skipping) && afterBlankLine
+                && startsGame(lineStart)) {
+            PgnGame done = emit(lineStart);
+            if (done != null) {
+                return done;
+            }
+        }
+        return gameLength > 0 ? emit(gameLength) : null;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int n = 0;
+        while (n == 0) {
+            n = in.read(buffer);
+        }
+        buffer.flip();
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    private void append(byte b) {
+        if (gameLength == game.length) {
+            game = Arrays.copyOf(game, game.length * 2);
+        }
+        game[gameLength++] = b;
+    }
+
+    private boolean startsGame(int start) {
+        if (gameLength - start < EVENT.length) {
+            return false;
+        }
+        for (int i = 0; i < EVENT.length; i++) {
+            if (game[start + i] != EVENT[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cuts the first end bytes of the buffer off as a game and moves the
+     * rest to the front. Whitespace-only text between games is dropped,
+     * and so is a game the filter rejects.
+     */
+    private PgnGame emit(int end) {
+        PgnGame done = null;
+        if (!skipping && !isBlank(end) && (tested || accepts(end))) {
+            done = new PgnGame(gameOffset, Arrays.copyOf(game, end));
+        }
+        drop(end);
+        tested = false;
+        skipping = false;
+        return done;
+    }
+
+    private void drop(int end) {
+        System.arraycopy(game, end, game, 0, gameLength - end);
+        gameLength -= end;
+        // a line that began in the dropped bytes now begins at the front
+        lineStart = Math.max(lineStart - end, 0);
+        gameOffset += end;
+    }
+
+    private boolean accepts(int end) {
+        return filter == null
+            || filter.test(PgnHeader.parse(ByteBuffer.wrap(game, 0, end)));
+    }
+
+    private boolean isBlank(int end) {
+        for (int i = 0; i < end; i++) {
+            if (!Character.isWhitespace(game[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * A move on the board packed into an `int`: origin square in bits 0-5,
+ * target square in bits 6-11 and the promotion piece type in bits 12-14.
+ * Castling is the king's two-square move; en passant is a pawn capture
+ * onto the en passant square. `NONE` (a1 to a1) is never a real move.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, int promotion) {
+        return from | (to << 6) | (promotion << 12);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the piece type promoted to, or 0
+     */
+    public static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    /**
+     * @return the move in long algebraic (UCI) form, such as `e7e8q`
+     */
+    public static String toString(int move) {
+        String text = square(from(move)) + square(to(move));
+        if (promotion(move) != 0) {
+            text += Character.toLowerCase(San.letterOf(promotion(move)));
+        }
+        return text;
+    }
+
+    private static String square(int sq) {
+        return "" + (char) ('a' + Bitboards.fileOf(sq))
+            + (char) ('1' + Bitboards.rankOf(sq));
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * Generates the legal moves of a position.
+ *
+ * Moves are generated pseudo-legally from the attack tables in
+ * `Bitboards` and filtered with precomputed check and pin information:
+ * when in check only evasions are produced, pinned pieces only move along
+ * their pin line and the king never steps onto an attacked square. En
+ * passant, which can expose the king along a rank, is verified by testing
+ * the position after the capture.
+ */
+public final class MoveGenerator {
+
+    /** More than the legal moves of any reachable position. */
+    public static final int MAX_MOVES = 256;
+
+    /** A type mask covering every piece type. */
+    public static final int ALL_TYPES = 0x7e;
+
+    private static final int[] PROMOTIONS =
+        {San.QUEEN, San.ROOK, San.BISHOP, San.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Store every legal move of position in moves.
+     *
+     * @return the number of moves stored
+     */
+    public static int legalMoves(Position position, int[] moves) {
+        return generate(position, moves, -1L, ALL_TYPES);
+    }
+
+    /**
+     * Store the legal moves of position that land on one of targets and
+     * are made by a piece type whose bit (`1 << type`) is set in types.
+     * Restricting both keeps SAN resolution down to a handful of moves.
+     *
+     * @param position the position to move in
+     * @param moves receives the moves; `MAX_MOVES` long is always enough
+     * @param targets the allowed target squares
+     * @param types the allowed piece types as a bit mask
+     * @return the number of moves stored
+     */
+    public static int generate(Position position, int[] moves, long targets,
+            int types) {
+        int us = position.sideToMove();
+        int them = 1 - us;
+        long own = position.occupied(us);
+        long occupied = position.occupied();
+        int king = Long.numberOfTrailingZeros(position.pieces(us, San.KING));
+        long checkers = position.attackers(king, them, occupied);
+        int n = 0;
+        if ((types & (1 << San.KING)) != 0) {
+            n = kingMoves(position, moves, n, king, targets & ~own,
+                checkers == 0);
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return n;
+        }
+        long allowed = targets & ~own;
+        if (checkers != 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            allowed &= checkers | Bitboards.BETWEEN[king][checker];
+        }
+        long pinned = pinned(position, us, king);
+        if ((types & (1 << San.PAWN)) != 0) {
+            n = pawnMoves(position, moves, n, king, allowed, targets,
+                pinned);
+        }
+        // with a single target only pieces that reach it need looking at
+        boolean single = (targets & (targets - 1)) == 0;
+        int target = Long.numberOfTrailingZeros(targets);
+        for (int type = San.KNIGHT; type <= San.QUEEN; type++) {
+            if ((types & (1 << type)) == 0) {
+                continue;
+            }
+            long pieces = position.pieces(us, type);
+            if (single) {
+                pieces &= attacks(type, target, occupied);
+            }
+            for (long b = pieces; b != 0; b &= b - 1) {
+                int from = Long.numberOfTrailingZeros(b);
+                long to = attacks(type, from, occupied) & allowed;
+                if ((pinned & Bitboards.bit(from)) != 0) {
+                    to &= Bitboards.LINE[king][from];
+                }
+                for (; to != 0; to &= to - 1) {
+                    moves[n++] = Move.of(from,
+                        Long.numberOfTrailingZeros(to));
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Return the pieces of type belonging to the side to move that could
+     * move to the square to if checks and pins are ignored. For pawns,
+     * capture selects captures (en passant included) over pushes.
+     *
+     * @return the candidate origin squares
+     */
+    public static long origins(Position position, int type, int to,
+            boolean capture) {
+        int us = position.sideToMove();
+        long target = Bitboards.bit(to);
+        if ((position.occupied(us) & target) != 0) {
+            return 0;
+        }
+        long pieces = position.pieces(us, type);
+        if (type == San.KING) {
+            return Bitboards.KING_ATTACKS[to] & pieces;
+        } else if (type != San.PAWN) {
+            return attacks(type, to, position.occupied()) & pieces;
+        } else if (capture) {
+            if ((position.occupied(1 - us) & target) == 0
+                    && to != position.epSquare()) {
+                return 0;
+            }
+            return Bitboards.PAWN_ATTACKS[1 - us][to] & pieces;
+        }
+        long empty = ~position.occupied();
+        long one = us == Position.WHITE ? target >>> 8 : target << 8;
+        long two = us == Position.WHITE
+            ? (one & empty & Bitboards.RANKS[2]) >>> 8
+            : (one & empty & Bitboards.RANKS[5]) << 8;
+        return (target & empty) == 0 ? 0 : (one | two) & pieces;
+    }
+
+    private static long attacks(int type, int from, long occupied) {
+        switch (type) {
+            case San.KNIGHT:
+                return Bitboards.KNIGHT_ATTACKS[from];
+            case San.BISHOP:
+                return Bitboards.bishopAttacks(from, occupied);
+            case San.ROOK:
+                return Bitboards.rookAttacks(from, occupied);
+            default:
+                return Bitboards.queenAttacks(from, occupied);
+        }
+    }
+
+    /**
+     * @return the pieces of color that are pinned against its king
+     */
+    static long pinned(Position position, int color, int king) {
+        int them = 1 - color;
+        long queens = position.pieces(them, San.QUEEN);
+        long snipers = (Bitboards.ROOK_LINES[king]
+            & (position.pieces(them, San.ROOK) | queens))
+            | (Bitboards.BISHOP_LINES[king]
+            & (position.pieces(them, San.BISHOP) | queens));
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            long between = Bitboards.BETWEEN[king][sniper]
+                & position.occupied();
+            if (between != 0 && (between & (between - 1)) == 0) {
+                pinned |= between & position.occupied(color);
+            }
+        }
+        return pinned;
+    }
+
+    private static int kingMoves(Position position, int[] moves, int n,
+            int king, long allowed, boolean castle) {
+        int them = 1 - position.sideToMove();
+        long occupied = position.occupied() & ~Bitboards.bit(king);
+        for (long b = Bitboards.KING_ATTACKS[king] & allowed; b != 0;
+                b &= b - 1) {
+            int to = Long.numberOfTrailingZeros(b);
+            if (position.attackers(to, them, occupied) == 0) {
+                moves[n++] = Move.of(king, to);
+            }
+        }
+        int home = position.sideToMove() == Position.WHITE ? 4 : 60;
+        if (!castle || king != home) {
+            return n;
+        }
+        int rights = position.castling();
+        if (position.sideToMove() == Position.BLACK) {
+            rights >>>= 2;
+        }
+        long rooks = position.pieces(position.sideToMove(), San.ROOK);
+        if ((rooks & Bitboards.bit(king + 3)) == 0) {
+            rights &= ~1;
+        }
+        if ((rooks & Bitboards.bit(king - 4)) == 0) {
+            rights &= ~2;
+        }
+        // kingside: f and g empty and not attacked
+        if ((rights & 1) != 0 && (allowed & Bitboards.bit(king + 2)) != 0
+                && (position.occupied() & (3L << (king + 1))) == 0
+                && position.attackers(king + 1, them, occupied) == 0
+                && position.attackers(king + 2, them, occupied) == 0) {
+            moves[n++] = Move.of(king, king + 2);
+        }
+        // queenside: b, c and d empty, c and d not attacked
+        if ((rights & 2) != 0 && (allowed & Bitboards.bit(king - 2)) != 0
+                && (position.occupied() & (7L << (king - 3))) == 0
+                && position.attackers(king - 1, them, occupied) == 0
+                && position.attackers(king - 2, them, occupied) == 0) {
+            moves[n++] = Move.of(king, king - 2);
+        }
+        return n;
+    }
+
+    private static int pawnMoves(Position position, int[] moves, int n,
+            int king, long allowed, long targets, long pinned) {
+        int us = position.sideToMove();
+        int forward = us == Position.WHITE ? 8 : -8;
+        int startRank = us == Position.WHITE ? 1 : 6;
+        long empty = ~position.occupied();
+        long enemy = position.occupied(1 - us);
+        int ep = position.epSquare();
+        long pawns = position.pieces(us, San.PAWN) & origins(us, targets);
+        for (long b = pawns; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long line = (pinned & Bitboards.bit(from)) != 0
+                ? Bitboards.LINE[king][from] : -1L;
+            long to = 0;
+            int one = from + forward;
+            if ((empty & Bitboards.bit(one)) != 0) {
+                to |= Bitboards.bit(one);
+                int two = one + forward;
+                if (Bitboards.rankOf(from) == startRank
+                        && (empty & Bitboards.bit(two)) != 0) {
+                    to |= Bitboards.bit(two);
+                }
+            }
+            long captures = Bitboards.PAWN_ATTACKS[us][from];
+            to |= captures & enemy;
+            to &= allowed & line;
+            for (; to != 0; to &= to - 1) {
+                n = addPawnMove(moves, n, from,
+                    Long.numberOfTrailingZeros(to));
+            }
+            if (ep != Position.NONE && (captures & Bitboards.bit(ep)) != 0
+                    && (targets & Bitboards.bit(ep)) != 0
+                    && enPassantIsLegal(position, from, ep, king)) {
+                moves[n++] = Move.of(from, ep);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return the squares from which a pawn of color could move or capture
+     *     onto one of targets
+     */
+    private static long origins(int color, long targets) {
+        long notA = targets & ~Bitboards.FILES[0];
+        long notH = targets & ~Bitboards.FILES[7];
+        if (color == Position.WHITE) {
+            return (targets >>> 8) | ((targets >>> 16) & Bitboards.RANKS[1])
+                | (notH >>> 7) | (notA >>> 9);
+        }
+        return (targets << 8) | ((targets << 16) & Bitboards.RANKS[6])
+            | (notH << 9) | (notA << 7);
+    }
+
+    private static int addPawnMove(int[] moves, int n, int from, int to) {
+        int rank = Bitboards.rankOf(to);
+        if (rank == 0 || rank == 7) {
+            for (int promotion : PROMOTIONS) {
+                moves[n++] = Move.of(from, to, promotion);
+            }
+        } else {
+            moves[n++] = Move.of(from, to);
+        }
+        return n;
+    }
+
+    /**
+     * Check en passant the slow way: take both pawns off, put ours on the
+     * target and see whether anything now attacks our king.
+     */
+    private static boolean enPassantIsLegal(Position position, int from,
+            int ep, int king) {
+        int us = position.sideToMove();
+        int them = 1 - us;
+        int captured = us == Position.WHITE ? ep - 8 : ep + 8;
+        long occupied = (position.occupied() ^ Bitboards.bit(from)
+            ^ Bitboards.bit(captured)) | Bitboards.bit(ep);
+        long attackers = position.attackers(king, them, occupied)
+            & ~Bitboards.bit(captured);
+        return attackers == 0;
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * A bounded cache of the positions reached by the opening moves of games,
+ * shared by every game replayed through it.
+ *
+ * The cache is a trie over decoded SAN moves: the node reached by a
+ * game's first n moves holds a copy of the position after them. A replay
+ * looks up the deepest prefix of its game that is cached, starts from a
+ * copy of that position and adds the plies it plays past it, up to
+ * `maxPlies` deep. Once the cache holds `capacity` positions the least
+ * recently used one is evicted. A node is always used more recently than
+ * its children, so the one evicted is a leaf and the trie stays whole.
+ *
+ * All methods lock the cache, so one cache may serve many threads; each
+ * replay takes the lock once to look up and once per new ply stored.
+ */
+public final class OpeningCache {
+
+    // a trie node, a copied Position and its arrays, on a 64-bit VM with
+    // compressed references
+    private static final int BYTES_PER_POSITION = 256;
+
+    private final int capacity;
+    private final int maxPlies;
+
+    // the starting position, and the recency list through every other
+    // node, most recent first, closed into a ring by a sentinel
+    private final Node root = new Node(0, null, Position.initial());
+    private final Node lru = new Node(0, null, null);
+    private int size;
+
+    private long lookups;
+    private long hits;
+    private long pliesRestored;
+    private long evictions;
+
+    // most games of a database share their first 8 to 15 plies
+    public static final int DEFAULT_PLIES = 16;
+
+    /**
+     * @param capacity the most positions to keep, `DEFAULT_PLIES` deep
+     */
+    public OpeningCache(int capacity) {
+        this(capacity, DEFAULT_PLIES);
+    }
+
+    /**
+     * @param capacity the most positions to keep
+     * @param maxPlies how many opening plies deep to cache
+     */
+    public OpeningCache(int capacity, int maxPlies) {
+        if (capacity < 1 || maxPlies < 1) {
+            throw new IllegalArgumentException("capacity " + capacity
+                + ", maxPlies " + maxPlies);
+        }
+        this.capacity = capacity;
+        this.maxPlies = maxPlies;
+        lru.previous = lru;
+        lru.next = lru;
+    }
+
+    /**
+     * @return how many opening plies deep positions are cached
+     */
+    public int maxPlies() {
+        return maxPlies;
+    }
+
+    /**
+     * Find the longest prefix of moves that is cached.
+     *
+     * @param moves a game's moves, packed by `San.decode`
+     * @param n how many of them to look at
+     * @return the node of the longest cached prefix, the root if none is
+     */
+    public synchronized Node lookup(int[] moves, int n) {
+        lookups++;
+        Node node = root;
+        for (int i = 0; i < n && i < maxPlies; i++) {
+            Node child = node.child(moves[i]);
+            if (child == null) {
+                break;
+            }
+            node = child;
+        }
+        if (node != root) {
+            hits++;
+            pliesRestored += node.ply;
+            // the deepest first, so that every node ends up more recent
+            // than its children
+            for (Node p = node; p != root; p = p.parent) {
+                unlink(p);
+                linkFirst(p);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Cache the position reached by playing move from the prefix at
+     * parent, unless it is already cached, parent has been evicted since
+     * it was looked up or it lies deeper than `maxPlies`.
+     *
+     * @param parent the prefix the move was played from
+     * @param move the move, packed by `San.decode`
+     * @param position the position after the move, which is copied
+     * @return the node of the longer prefix, or null if it is not cached
+     */
+    public synchronized Node store(Node parent, int move,
+            Position position) {
+        if (parent == null || parent.evicted || parent.ply >= maxPlies) {
+            return null;
+        }
+        Node child = parent.child(move);
+        if (child != null) {
+            return child;
+        }
+        if (size == capacity) {
+            Node victim = lru.previous;
+            if (victim == parent) {
+                return null;
+            }
+            evict(victim);
+        }
+        child = new Node(move, parent, position.copy());
+        child.nextSibling = parent.firstChild;
+        parent.firstChild = child;
+        // just behind its parent, which keeps the parent the more recent
+        linkAfter(parent == root ? lru : parent, child);
+        size++;
+        return child;
+    }
+
+    private void evict(Node node) {
+        Node parent = node.parent;
+        if (parent.firstChild == node) {
+            parent.firstChild = node.nextSibling;
+        } else {
+            Node sibling = parent.firstChild;
+            while (sibling.nextSibling != node) {
+                sibling = sibling.nextSibling;
+            }
+            sibling.nextSibling = node.nextSibling;
+        }
+        unlink(node);
+        node.evicted = true;
+        size--;
+        evictions++;
+    }
+
+    private void linkFirst(Node node) {
+        linkAfter(lru, node);
+    }
+
+    private static void linkAfter(Node previous, Node node) {
+        node.previous = previous;
+        node.next = previous.next;
+        previous.next.previous = node;
+        previous.next = node;
+    }
+
+    private static void unlink(Node node) {
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+    }
+
+    /**
+     * @return how many positions are cached
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the share of lookups that found at least one cached ply
+     */
+    public synchronized double hitRate() {
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return a rough figure for the heap the cached positions take
+     */
+    public synchronized long estimatedBytes() {
+        return (long) size * BYTES_PER_POSITION;
+    }
+
+    /**
+     * @return a one-line summary of the cache's use so far
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("opening cache: %d lookups, %.1f%% hits, "
+            + "%.1f plies restored per hit, %d of %d positions "
+            + "(about %.1f MB), %d evicted", lookups, 100 * hitRate(),
+            hits == 0 ? 0 : (double) pliesRestored / hits, size, capacity,
+            estimatedBytes() / 1e6, evictions);
+    }
+
+    /**
+     * A cached prefix: the position after the moves on the path from the
+     * root to this node.
+     */
+    public static final class Node {
+
+        private final int move;
+        private final int ply;
+        private final Node parent;
+        private Node firstChild;
+        private Node nextSibling;
+        private Node previous;
+        private Node next;
+        private boolean evicted;
+        private final Position position;
+
+        private Node(int move, Node parent, Position position) {
+            this.move = move;
+            this.parent = parent;
+            this.ply = parent == null ? 0 : parent.ply + 1;
+            this.position = position;
+        }
+
+        private Node child(int move) {
+            for (Node c = firstChild; c != null; c = c.nextSibling) {
+                if (c.move == move) {
+                    return c;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return how many moves the prefix is long
+         */
+        public int ply() {
+            return ply;
+        }
+
+        /**
+         * @return a copy of the position after the prefix, to play on
+         */
+        public Position position() {
+            return position.copy();
+        }
+    }
+}
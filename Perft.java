@@ -0,0 +1,132 @@
+/**
+ * Counts the leaf nodes of the legal move tree (perft) with the same
+ * `Position` and `MoveGenerator` that replay games for `finalPosition`.
+ *
+ * Without arguments every reference position is searched to its listed
+ * depth and the counts are checked against the published values; the
+ * exit status is 1 if any differ. Given a FEN and a depth, the count is
+ * split by root move (divide), which narrows a wrong count down to the
+ * move whose subtree is off. The tree is walked with `makeMove` and
+ * `unmakeMove` on a single position. With assertions enabled, every move
+ * taken back is also checked to restore the position's key, both as
+ * updated by the moves and as computed from scratch, which catches a
+ * move that is not taken back exactly.
+ *
+ * Usage: java [-ea] Perft [fen depth]
+ *
+ * @see https://www.chessprogramming.org/Perft_Results
+ */
+public class Perft {
+
+    // FEN, depth and expected leaf count
+    private static final String[][] REFERENCE = {
+        {Position.INITIAL_FEN, "5", "4865609"},
+        {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R"
+            + " w KQkq - 0 1", "4", "4085603"},
+        {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", "6", "11030083"},
+        {"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "5", "15833292"},
+        {"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "4", "2103487"},
+        {"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1"
+            + " w - - 0 10", "4", "3894594"}
+    };
+
+    public static void main(String[] args) {
+        if (args.length == 2) {
+            divide(Position.fromFen(args[0]), Integer.parseInt(args[1]));
+            return;
+        }
+        boolean ok = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (String[] reference : REFERENCE) {
+            Position position = Position.fromFen(reference[0]);
+            int depth = Integer.parseInt(reference[1]);
+            long expected = Long.parseLong(reference[2]);
+            long t0 = System.nanoTime();
+            long nodes = perft(position, depth);
+            long nanos = System.nanoTime() - t0;
+            totalNodes += nodes;
+            totalNanos += nanos;
+            System.out.format("%-6s depth %d: %,d nodes in %.3f s (%s)%n",
+                nodes == expected ? "OK" : "FAILED", depth, nodes,
+                nanos / 1e9, rate(nodes, nanos));
+            if (nodes != expected) {
+                System.out.format("       expected %,d for %s%n", expected,
+                    reference[0]);
+                ok = false;
+            }
+        }
+        System.out.format("total: %,d nodes (%s)%n", totalNodes,
+            rate(totalNodes, totalNanos));
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the number of move paths of length depth from position
+     */
+    public static long perft(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        return perft(position, depth, new int[depth][MoveGenerator.MAX_MOVES]);
+    }
+
+    // moves[depth - 1] holds the moves generated at that remaining depth
+    private static long perft(Position position, int depth, int[][] moves) {
+        int[] list = moves[depth - 1];
+        int n = MoveGenerator.legalMoves(position, list);
+        if (depth == 1) {
+            return n;
+        }
+        long key = position.key();
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            long undo = position.makeMove(list[i]);
+            nodes += perft(position, depth - 1, moves);
+            position.unmakeMove(list[i], undo);
+            assert takenBack(position, key) : Move.toString(list[i])
+                + " not taken back in " + position.fen();
+        }
+        return nodes;
+    }
+
+    /**
+     * @return whether position has key again, kept up to date and from
+     *     scratch
+     */
+    private static boolean takenBack(Position position, long key) {
+        return position.key() == key && position.computeKey() == key;
+    }
+
+    /**
+     * Print the perft count below each legal move of position, in the
+     * `e2e4: 20` form other engines print, followed by the total.
+     */
+    public static void divide(Position position, int depth) {
+        int[] list = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.legalMoves(position, list);
+        long t0 = System.nanoTime();
+        long key = position.key();
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            long undo = position.makeMove(list[i]);
+            long nodes = depth > 1 ? perft(position, depth - 1) : 1;
+            position.unmakeMove(list[i], undo);
+            assert takenBack(position, key) : Move.toString(list[i])
+                + " not taken back in " + position.fen();
+            total += nodes;
+            System.out.println(Move.toString(list[i]) + ": " + nodes);
+        }
+        long nanos = System.nanoTime() - t0;
+        System.out.format("%nmoves: %d%nnodes: %d (%s)%n", n, total,
+            rate(total, nanos));
+    }
+
+    private static String rate(long nodes, long nanos) {
+        return String.format("%.2f M nodes/s", nodes * 1e3 / nanos);
+    }
+}
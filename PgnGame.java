@@ -0,0 +1,45 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The raw bytes of one game from a PGN file, together with the byte offset
+ * at which the game starts in that file.
+ */
+public final class PgnGame {
+
+    private final long offset;
+    private final byte[] bytes;
+
+    public PgnGame(long offset, byte[] bytes) {
+        this.offset = offset;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the byte offset of the first byte of this game in its file
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of bytes in this game, trailing blank lines included
+     */
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * @return a read-only view of the game's bytes
+     */
+    public ByteBuffer bytes() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the game decoded as UTF-8 text, suitable for `finalPosition`
+     */
+    public String text() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
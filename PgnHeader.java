@@ -0,0 +1,187 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The tag pairs of one game, parsed in a single pass over its tag section.
+ *
+ * Parsing stops at the first blank line or the first token that is not a
+ * tag, so the movetext is never scanned. Names of common tags are shared
+ * constants; values are kept as byte spans of the game's buffer and only
+ * decoded when asked for.
+ *
+ * @see http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm#c8.1
+ */
+public final class PgnHeader {
+
+    /**
+     * The Seven Tag Roster, in the order the PGN standard lists it.
+     */
+    public static final String[] SEVEN_TAG_ROSTER = {
+        "Event", "Site", "Date", "Round", "White", "Black", "Result"
+    };
+
+    private static final String[] COMMON_NAMES = {
+        "Event", "Site", "Date", "Round", "White", "Black", "Result",
+        "WhiteElo", "BlackElo", "WhiteTitle", "BlackTitle", "WhiteFideId",
+        "BlackFideId", "WhiteRatingDiff", "BlackRatingDiff", "ECO",
+        "Opening", "Variation", "TimeControl", "Termination", "EventDate",
+        "UTCDate", "UTCTime", "PlyCount", "Annotator", "Mode", "SetUp",
+        "FEN", "Variant", "Board"
+    };
+
+    private final ByteBuffer buf;
+    private String[] names = new String[8];
+    private int[] spans = new int[16];
+    private String[] values = new String[8];
+    private int size;
+    private int movetextStart;
+
+    private PgnHeader(ByteBuffer buf) {
+        this.buf = buf;
+    }
+
+    /**
+     * Parse the tag section at the start of game.
+     *
+     * @param game the PGN text of a game, from its position to its limit
+     * @return the game's tag pairs
+     */
+    public static PgnHeader parse(ByteBuffer game) {
+        PgnHeader header = new PgnHeader(game);
+        PgnTokenizer tokens = new PgnTokenizer(game);
+        header.movetextStart = game.position();
+        while (tokens.next() == PgnTokenizer.TAG) {
+            header.add(tokens);
+            header.movetextStart = tokens.end();
+            if (blankLineAt(game, tokens.end())) {
+                break;
+            }
+        }
+        return header;
+    }
+
+    private void add(PgnTokenizer tokens) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            spans = Arrays.copyOf(spans, size * 4);
+        }
+        names[size] = name(tokens.nameStart(), tokens.nameEnd());
+        spans[2 * size] = tokens.valueStart();
+        spans[2 * size + 1] = tokens.valueEnd();
+        size++;
+    }
+
+    /**
+     * @return true if the whitespace starting at from holds a blank line
+     */
+    private static boolean blankLineAt(ByteBuffer buf, int from) {
+        int newlines = 0;
+        for (int i = from; i < buf.limit(); i++) {
+            byte b = buf.get(i);
+            if (b == '\n') {
+                if (++newlines == 2) {
+                    return true;
+                }
+            } else if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private String name(int from, int to) {
+        for (String common : COMMON_NAMES) {
+            if (spanEquals(from, to, common)) {
+                return common;
+            }
+        }
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buf.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private boolean spanEquals(int from, int to, String text) {
+        if (to - from != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (buf.get(from + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of tag pairs
+     */
+    public int size() {
+        return size;
+    }
+
+    public String name(int i) {
+        return names[i];
+    }
+
+    /**
+     * @return the value of the i-th tag pair, with escapes removed
+     */
+    public String value(int i) {
+        if (values[i] == null) {
+            values[i] = decode(spans[2 * i], spans[2 * i + 1]);
+        }
+        return values[i];
+    }
+
+    /**
+     * @return the index of the first tag pair named name, or -1
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the value of the first tag pair named name, or null
+     */
+    public String get(String name) {
+        int i = indexOf(name);
+        return i < 0 ? null : value(i);
+    }
+
+    /**
+     * @return the value of the tag pair named name, or `NOT GIVEN`
+     */
+    public String getOrNotGiven(String name) {
+        String value = get(name);
+        return value == null ? "NOT GIVEN" : value;
+    }
+
+    /**
+     * @return the index in the game's buffer where the movetext begins
+     */
+    public int movetextStart() {
+        return movetextStart;
+    }
+
+    private String decode(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b == '\\' && i + 1 < to) {
+                b = buf.get(++i);
+            }
+            bytes[n++] = b;
+        }
+        return new String(bytes, 0, n, StandardCharsets.UTF_8);
+    }
+}
@@ -1,14 +1,51 @@
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
-import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
 
 public class PgnReader {
 
+    /**
+     * Output fields for `formatGame(ByteBuffer, int)`, or'ed together.
+     * The movetext is only read when a field needs the moves replayed.
+     */
+    public static final int TAGS = 1;
+    public static final int PLACEMENT = 2;
+    public static final int FEN = 4;
+    public static final int PLIES = 8;
+    public static final int VARIATIONS = 16;
+
+    private static final String[] FIELD_NAMES = {
+        "tags", "placement", "fen", "plies", "variations"
+    };
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+        "usage: java PgnReader [--threads n] [--unordered] [--full-fen]",
+        "    [--fields tags,placement,fen,plies,variations]",
+        "    [--opening-cache positions] [--where \"Tag op value\"]...",
+        "    [--output file [--checkpoint file [--resume]]] [--rejects file]",
+        "    [--max-plies n] [--max-tokens n] [--max-millis n]",
+        "    [--follow] file-or-dir...");
+
+    // shared by every replay that does not watch the plies go by
+    private static volatile OpeningCache openingCache;
+    private static volatile Budget budget = Budget.UNLIMITED;
+
     /**
      * Find the tagName tag pair in a PGN game and return its value.
      *
@@ -19,228 +56,175 @@ public class PgnReader {
      * @return the value in the named tag pair
      */
     public static String tagValue(String tagName, String game) {
-        String pattern = tagName + " \"(.*)\"";
-        // System.out.println(pattern);
-        Pattern p = Pattern.compile(pattern);
-        Matcher m = p.matcher(game);
-        String outstring = "";
-        boolean found = false;
-        while (m.find()) {
-            found = true;
-            outstring += m.group(1);
-        }
-        if (found) {
-            return outstring;
-        } else {
-            return "NOT GIVEN";
-        }
+        PgnHeader header = PgnHeader.parse(
+            ByteBuffer.wrap(game.getBytes(StandardCharsets.UTF_8)));
+        return header.getOrNotGiven(tagName);
     }
 
 
-    public static Point[] gpl(char[][] board, char pieceType, char color) {
-        Point[] locs = new Point[2];
-        int num = 0;
-        if (color == 'b') {
-            pieceType = Character.toLowerCase(pieceType);
+    public static String disProvider(String move) {
+        int san = San.decode(move);
+        int piece = San.piece(san);
+        if (san == San.INVALID || piece == San.PAWN || piece == San.QUEEN
+                || piece == San.KING) {
+            return "-";
         }
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (board[i][j] == pieceType) {
-                    locs[num] = new Point(i, j);
-                    num += 1;
-                }
-            }
+        String disLoc = "";
+        if (San.fromFile(san) >= 0) {
+            disLoc += (char) ('a' + San.fromFile(san));
         }
-        return locs;
-    }
-
-    public static String disProvider(String move) {
-        Pattern p;
-        p = Pattern.compile("[RBN]{1}([a-h1-8]?)x?[a-h]{1}[1-8]{1}\\S*");
-        Matcher m = p.matcher(move);
-        String disLoc = "-";
-        if (m.find()) {
-            disLoc = m.group(1);
+        if (San.fromRank(san) >= 0) {
+            disLoc += (char) ('1' + San.fromRank(san));
         }
         return disLoc;
     }
 
     public static String getEndLoc(String move) {
-        Pattern p;
-        p = Pattern.compile("[QKsRBN]{1}[a-h1-8]?x?([a-h]{1}[1-8]{1})\\S*");
-        Matcher m = p.matcher(move);
-        while (m.find()) {
-            return m.group(1);
-        }
-        return "0";
-    }
-    public static Point canMove(char[][] board, String move,
-        Point[] locs, char pieceType, int endRow, int endCol) {
-        if (pieceType == 'R' || pieceType == 'r') {
-            String disLoc = disProvider(move);
-            if (!disLoc.equals("-") && !disLoc.isEmpty()) {
-                if (Character.isDigit(disLoc.charAt(0))) {
-                    for (int i = 0; i < locs.length; i++) {
-                        if ((int) locs[i].getX() == Integer.parseInt(disLoc)) {
-                            return locs[i];
-                        }
-                    }
-                } else {
-                    for (int i = 0; i < locs.length; i++) {
-                        if ((int) locs[i].getY()
-                                == Character.getNumericValue(disLoc.charAt(0))
-                                - 10) {
-                            return locs[i];
-                        }
-                    }
-                }
+        int san = San.decode(move);
+        if (san == San.INVALID || San.isCastle(san)) {
+            return "0";
+        }
+        return "" + (char) ('a' + San.toFile(san))
+            + (char) ('1' + San.toRank(san));
+    }
+
+    /**
+     * Return the legal move that a decoded SAN move stands for, or
+     * `Move.NONE` if there is none. When a single piece of the named type
+     * can reach the target and the move is plainly legal, it is the mover.
+     * Otherwise the legal moves of that type to that square are generated,
+     * so that pinned pieces, moves that leave the king in check and wrong
+     * promotions drop out, and matched against the origin file, rank and
+     * promotion given in the SAN.
+     *
+     * @param position the position before the move
+     * @param move the move, packed by `San.decode`
+     * @return the matching legal move, packed by `Move`
+     * @throws IllegalArgumentException if more than one legal move matches
+     */
+    public static int canMove(Position position, int move) {
+        return canMove(position, move, new int[MoveGenerator.MAX_MOVES]);
+    }
+
+    /**
+     * Same as `canMove(Position, int)`, generating into the caller's
+     * scratch array so that a replay loop allocates nothing per move.
+     */
+    public static int canMove(Position position, int move, int[] scratch) {
+        int type = San.piece(move);
+        int fromFile = San.fromFile(move);
+        int fromRank = San.fromRank(move);
+        int to;
+        if (San.isCastle(move)) {
+            int king = position.sideToMove() == Position.WHITE ? 4 : 60;
+            to = San.isLongCastle(move) ? king - 2 : king + 2;
+        } else {
+            to = San.to(move);
+            long origins = MoveGenerator.origins(position, type, to,
+                San.isCapture(move));
+            if (fromFile >= 0) {
+                origins &= Bitboards.FILES[fromFile];
             }
-            for (int i = 0; i < locs.length; i++) {
-                if (endRow == (int) locs[i].getX()
-                        || endCol == (int) locs[i].getY()) {
-                    boolean clearPath = true;
-                    if (endRow == (int) locs[i].getX()) {
-                        int colDelta = endCol - (int) locs[i].getY();
-                        if (colDelta > 0) {
-                            for (int col = 1; col < colDelta + 1; col++) {
-                                if (((int) locs[i].getY() + col) != endCol) {
-                                    if (board[endRow][(int) locs[i].getY()
-                                            + col] != '-') {
-                                        clearPath = false;
-                                    }
-                                }
-                            }
-                        } else {
-                            for (int col = 1; col < colDelta + 1; col++) {
-                                if (((int) locs[i].getY() - col) != endCol) {
-                                    if (board[endRow][(int) locs[i].getY()
-                                            - col] != '-') {
-                                        clearPath = false;
-                                    }
-                                }
-                            }
-                        }
-                        if (clearPath) {
-                            return locs[i];
-                        }
-                    } else {
-                        int rowDelta = endRow - (int) locs[i].getX();
-                        if (rowDelta > 0) {
-                            // rook moved up
-                            for (int row = 1; row < rowDelta + 1; row++) {
-                                if (((int) locs[i].getX() + row) != endRow) {
-                                    if (board[(int) locs[i].getX()
-                                            + row][endCol] != '-') {
-                                        clearPath = false;
-                                    }
-                                }
-                            }
-                        } else {
-                            for (int row = 1; row < rowDelta + 1; row++) {
-                                if (((int) locs[i].getX() - row) != endRow) {
-                                    if (board[(int) locs[i].getX()
-                                            - row][endCol] != '-') {
-                                        clearPath = false;
-                                    }
-                                }
-                            }
-                        }
-                        if (clearPath) {
-                            return locs[i];
-                        }
-                    }
-                }
+            if (fromRank >= 0) {
+                origins &= Bitboards.RANKS[fromRank];
             }
-        } else if (pieceType == 'B' || pieceType == 'b') {
-            String disLoc = disProvider(move);
-            if (!disLoc.equals("-") && !disLoc.isEmpty()) {
-                if (Character.isDigit(disLoc.charAt(0))) {
-                    for (int i = 0; i < locs.length; i++) {
-                        if ((int) locs[i].getX() == Integer.parseInt(disLoc)) {
-                            return locs[i];
-                        }
-                    }
-                } else {
-                    for (int i = 0; i < locs.length; i++) {
-                        if ((int) locs[i].getY()
-                                == Character.getNumericValue(disLoc.charAt(0))
-                                    - 10) {
-                            return locs[i];
-                        }
-                    }
+            if (origins != 0 && (origins & (origins - 1)) == 0) {
+                // only one piece can get there, so the SAN leaves no
+                // choice; unless the move is plainly legal, the
+                // generator below settles it
+                int from = Long.numberOfTrailingZeros(origins);
+                if (isPlainlyLegal(position, type, from, to,
+                        San.promotion(move))) {
+                    return Move.of(from, to, San.promotion(move));
                 }
             }
-            for (int i = 0; i < locs.length; i++) {
-                int rowDelta = Math.abs(endRow - (int) locs[i].getX());
-                int colDelta = Math.abs(endCol - (int) locs[i].getY());
-                if (rowDelta == colDelta) {
-                    int dirRowDelta = endRow - (int) locs[i].getX();
-                    int dirColDelta = endCol - (int) locs[i].getY();
-                    int rowAdd = 0;
-                    int colAdd = 0;
-                    boolean clearPath = true;
-                    for (int x = 0; x < rowDelta; x++) {
-                        rowAdd += dirRowDelta / rowDelta;
-                        colAdd += dirColDelta / colDelta;
-                        if (((int) locs[i].getX() + rowAdd
-                                != endRow) && ((int) locs[i].getY()
-                                + colAdd != endCol)) {
-                            if (board[(int) locs[i].getX()
-                                    + rowAdd][(int) locs[i].getY()
-                                    + colAdd] != '-') {
-                                clearPath = false;
-                            }
-                        }
-                    }
-                    if (clearPath) {
-                        return locs[i];
-                    }
-                }
+        }
+        int n = MoveGenerator.generate(position, scratch,
+            Bitboards.bit(to), 1 << type);
+        int found = Move.NONE;
+        for (int i = 0; i < n; i++) {
+            int candidate = scratch[i];
+            int from = Move.from(candidate);
+            if ((fromFile >= 0 && Bitboards.fileOf(from) != fromFile)
+                    || (fromRank >= 0 && Bitboards.rankOf(from) != fromRank)
+                    || Move.promotion(candidate) != San.promotion(move)
+                    || (type == San.KING && San.isCastle(move)
+                        != (Math.abs(to - from) == 2))) {
+                continue;
             }
-        } else if (pieceType == 'N' || pieceType == 'n') {
-            String disLoc = disProvider(move);
-            if (!disLoc.equals("-") && !disLoc.isEmpty()) {
-                if (Character.isDigit(disLoc.charAt(0))) {
-                    for (int i = 0; i < locs.length; i++) {
-                        if ((int) locs[i].getX() == Integer.parseInt(disLoc)) {
-                            return locs[i];
-                        }
-                    }
-                } else {
-                    for (int i = 0; i < locs.length; i++) {
-                        if ((int) locs[i].getY()
-                                == Character.getNumericValue(disLoc.charAt(0))
-                                - 10) {
-                            return locs[i];
-                        }
-                    }
-                }
+            if (found != Move.NONE) {
+                throw new IllegalArgumentException("ambiguous move "
+                    + Move.toString(found) + " or "
+                    + Move.toString(candidate) + " in " + position.fen());
             }
-            for (int i = 0; i < locs.length; i++) {
-                int rowDelta = Math.abs(endRow - (int) locs[i].getX());
-                int colDelta = Math.abs(endCol - (int) locs[i].getY());
-                if ((rowDelta == 2 && colDelta == 1)
-                        || (rowDelta == 1 && colDelta == 2)) {
-                    return locs[i];
-                }
+            found = candidate;
+        }
+        return found;
+    }
+
+    /**
+     * @return whether moving the piece of type on from to to is legal
+     *     without generating moves: the king is not in check and does not
+     *     move, the piece is not pinned off the line to its king, it is
+     *     not an en passant capture, and a pawn promotes exactly when it
+     *     reaches the last rank
+     */
+    private static boolean isPlainlyLegal(Position position, int type,
+            int from, int to, int promotion) {
+        if (type == San.KING || position.inCheck()) {
+            return false;
+        }
+        int rank = Bitboards.rankOf(to);
+        if (type == San.PAWN) {
+            if (to == position.epSquare()
+                    || (rank == 0 || rank == 7) != (promotion != 0)) {
+                return false;
             }
+        } else if (promotion != 0) {
+            return false;
+        }
+        int us = position.sideToMove();
+        int king = Long.numberOfTrailingZeros(position.pieces(us, San.KING));
+        return (MoveGenerator.pinned(position, us, king)
+                & Bitboards.bit(from)) == 0
+            || (Bitboards.LINE[king][from] & Bitboards.bit(to)) != 0;
+    }
+
+    /**
+     * Play one decoded SAN move on position.
+     *
+     * @param position the position to update
+     * @param move the move, packed by `San.decode`
+     * @param scratch a `MoveGenerator.MAX_MOVES` long work array
+     * @throws IllegalArgumentException if the move is illegal or ambiguous
+     */
+    public static void playMove(Position position, int move, int[] scratch) {
+        int legal = canMove(position, move, scratch);
+        if (legal == Move.NONE) {
+            throw new IllegalArgumentException("illegal move "
+                + San.toString(move) + " in " + position.fen());
         }
-        return new Point();
+        position.play(legal);
     }
 
-    public static void debugBoard(char[][] board) {
+    public static void debugBoard(Position position) {
+        String[] rows = position.placement().split("/");
         for (int i = 0; i < 8; i++) {
             String row = "";
-            for (int j = 0; j < 8; j++) {
-                row += board[i][j];
+            for (int j = 0; j < rows[i].length(); j++) {
+                char c = rows[i].charAt(j);
+                if (Character.isDigit(c)) {
+                    for (int k = 0; k < c - '0'; k++) {
+                        row += '-';
+                    }
+                } else {
+                    row += c;
+                }
             }
             System.out.println(row);
         }
     }
 
-    // Return the piece that can make the move required
-
-
     /**
      * Play out the moves in game and return a String with the game's
      * final position in Forsyth-Edwards Notation (FEN).
@@ -251,441 +235,298 @@ public class PgnReader {
      * @return the game's final position in FEN.
      */
     public static String finalPosition(String game) {
-        String[] splitGame = game.split("\n");
-        boolean sanStart = false;
-        String sanText = "";
-        for (int i = 0; i < splitGame.length; i++) {
-            if (splitGame[i].trim().isEmpty()) {
-                sanStart = true;
-            }
-            if (sanStart) {
-                sanText = sanText + " " + splitGame[i];
-            }
+        return finalPosition(
+            ByteBuffer.wrap(game.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Play out the moves in the PGN text between game's position and limit
+     * and return the final position in FEN. The text is tokenized in place,
+     * so game may be a slice of a larger, possibly memory-mapped, buffer.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @return the game's final position in FEN.
+     */
+    public static String finalPosition(ByteBuffer game) {
+        return replay(game).placement();
+    }
+
+    /**
+     * Play out the moves in game from the starting position.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @return the position after the last move
+     */
+    public static Position replay(ByteBuffer game) {
+        OpeningCache cache = openingCache;
+        if (cache != null) {
+            return replay(game, cache);
         }
-        sanText = sanText.trim();
-        String movePattern;
-        movePattern = "\\d+\\. ([a-zA-ZO\\-0-9=+#?]+\\s?[a-zA-ZO\\-0-9=+#?]+)";
-        Pattern p = Pattern.compile(movePattern);
-        Matcher m = p.matcher(sanText);
-        char[][] board = new char[8][8];
-        char[][] prevMoveBoard = new char[8][8];
-        String[] initial = "rnbqkbnr/pppppppp/--------/--------/--------/--------/PPPPPPPP/RNBQKBNR".split("/");
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                board[i][j] = initial[i].charAt(j);
+        return replay(game, (Consumer<Position>) null);
+    }
+
+    /**
+     * Play out the moves in game from the starting position, handing the
+     * position to eachPly after every move. The same `Position` object is
+     * passed each time, so copy out what must outlive the call. Comments,
+     * NAGs and variations are skipped: only the main line is played.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @param eachPly called after each move, or null
+     * @return the position after the last move
+     * @throws BudgetExceededException if the game goes over the budget
+     */
+    public static Position replay(ByteBuffer game,
+            Consumer<Position> eachPly) {
+        PgnTokenizer tokens = new PgnTokenizer(game);
+        tokens.setSkipAnnotations(true);
+        Budget.Meter meter = budget.start();
+        Position position = Position.initial();
+        int[] scratch = new int[MoveGenerator.MAX_MOVES];
+        int move;
+        while ((move = nextMove(tokens, meter)) != San.INVALID) {
+            meter.ply();
+            playMove(position, move, scratch);
+            if (eachPly != null) {
+                eachPly.accept(position);
             }
         }
-        int counter = 0;
-        char color = 'o';
-        boolean whiteKingRook = false;
-        boolean whiteQueenRook = false;
-        boolean whiteKing = false;
-        boolean blackKingRook = false;
-        boolean blackQueenRook = false;
-        boolean blackKing = false;
-        String lastMove = "";
-        int pawnCounter = 0;
-        while (m.find()) {
-            for (int i = 0; i < 8; i++) {
-                for (int j = 0; j < 8; j++) {
-                    prevMoveBoard[i][j] = board[i][j];
+        return position;
+    }
+
+    /**
+     * Play out the moves in game, starting from the deepest of its opening
+     * prefixes found in cache rather than from the starting position, and
+     * adding the opening plies played past it to the cache.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @param cache the opening positions shared between games
+     * @return the position after the last move
+     * @throws BudgetExceededException if the game goes over the budget
+     */
+    public static Position replay(ByteBuffer game, OpeningCache cache) {
+        PgnTokenizer tokens = new PgnTokenizer(game);
+        tokens.setSkipAnnotations(true);
+        Budget.Meter meter = budget.start();
+        int[] opening = new int[cache.maxPlies()];
+        int n = 0;
+        int move;
+        while (n < opening.length
+                && (move = nextMove(tokens, meter)) != San.INVALID) {
+            meter.ply();
+            opening[n++] = move;
+        }
+        OpeningCache.Node prefix = cache.lookup(opening, n);
+        Position position = prefix.position();
+        int[] scratch = new int[MoveGenerator.MAX_MOVES];
+        for (int i = prefix.ply(); i < n; i++) {
+            playMove(position, opening[i], scratch);
+            prefix = cache.store(prefix, opening[i], position);
+        }
+        while ((move = nextMove(tokens, meter)) != San.INVALID) {
+            meter.ply();
+            playMove(position, move, scratch);
+        }
+        return position;
+    }
+
+    /**
+     * Play out the main line of game and every variation in it. At each
+     * `(` the position the variation forks from is made by copying the
+     * position reached and taking back its last move, and at the matching
+     * `)` the line it branched off carries on from where it was, so each
+     * move is played once and the work grows with the number of moves in
+     * all lines together.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @return the main line, with the variation tree under it
+     * @throws IllegalArgumentException if a move is unreadable or
+     *     illegal or the parentheses do not match
+     * @throws BudgetExceededException if the game goes over the budget
+     */
+    public static Variation replayVariations(ByteBuffer game) {
+        PgnTokenizer tokens = new PgnTokenizer(game);
+        Budget.Meter meter = budget.start();
+        int[] scratch = new int[MoveGenerator.MAX_MOVES];
+        Variation line = new Variation(null, 0);
+        Position position = Position.initial();
+        int lastMove = Move.NONE;
+        long lastUndo = 0;
+        // the state of each line a variation is open in, innermost last
+        Position[] forks = new Position[8];
+        int[] forkMoves = new int[8];
+        long[] forkUndos = new long[8];
+        int depth = 0;
+        int token;
+        while ((token = tokens.next()) != PgnTokenizer.END) {
+            meter.token();
+            if (token == PgnTokenizer.VARIATION_START) {
+                if (lastMove == Move.NONE) {
+                    throw new IllegalArgumentException(
+                        "variation without a move to replace at offset "
+                        + offset(tokens));
                 }
-            }
-            counter += 1;
-            String[] turnMoves = m.group(1).split(" ");
-            if (turnMoves.length == 2) {
-                color = 'w';
-                String whiteMove = turnMoves[0];
-                if (Character.isLowerCase(whiteMove.charAt(0))) {
-                    pawnCounter = 0;
-                    if (whiteMove.contains("x")) {
-                        int startCol =
-                            Character.getNumericValue(whiteMove.charAt(0)) - 10;
-                        int endCol =
-                            Character.getNumericValue(whiteMove.charAt(2)) - 10;
-                        int row =
-                            8 - Character.getNumericValue(whiteMove.charAt(3));
-                        if (whiteMove.contains("=")) {
-                            board[row][endCol] =
-                                whiteMove.charAt(whiteMove.indexOf('=') + 1);
-                            board[row + 1][startCol] = '-';
-                        } else {
-                            board[row][endCol] = 'P';
-                            board[row + 1][startCol] = '-';
-                            if (row == 2) {
-                                if (board[row + 1][endCol] == 'p') {
-                                    board[row + 1][endCol] = '-';
-                                }
-                            }
-                        }
-                    } else {
-                        int col =
-                            Character.getNumericValue(whiteMove.charAt(0)) - 10;
-                        int endRow =
-                            8 - Character.getNumericValue(whiteMove.charAt(1));
-                        boolean foundPawn = false;
-                        int checkRow = endRow + 1;
-                        while (!foundPawn) {
-                            char pawn = board[checkRow][col];
-                            if (pawn == 'P') {
-                                foundPawn = true;
-                                if (whiteMove.contains("=")) {
-                                    board[checkRow][col] = '-';
-                                    board[endRow][col] =
-                                        whiteMove.charAt(whiteMove.indexOf('=')
-                                                + 1);
-                                } else {
-                                    board[checkRow][col] = '-';
-                                    board[endRow][col] = 'P';
-                                }
-                            } else {
-                                checkRow += 1;
-                            }
-                        }
-                    }
-                } else if (whiteMove.contains("O")) {
-                    pawnCounter += 1;
-                    if (whiteMove.contains("O-O-O")) {
-                        board[7][4] = '-';
-                        board[7][2] = 'K';
-                        board[7][3] = 'R';
-                        board[7][0] = '-';
-                    } else {
-                        board[7][4] = '-';
-                        board[7][6] = 'K';
-                        board[7][5] = 'R';
-                        board[7][7] = '-';
-                    }
-                } else {
-                    if (whiteMove.contains("x")) {
-                        pawnCounter = 0;
-                    } else {
-                        pawnCounter += 1;
-                    }
-                    char pieceType = whiteMove.charAt(0);
-                    String endLoc = getEndLoc(whiteMove);
-                    int endCol =
-                        Character.getNumericValue(endLoc.charAt(0)) - 10;
-                    int endRow =
-                        8 - Character.getNumericValue(endLoc.charAt(1));
-                    if (pieceType == 'R') {
-                        Point[] rooks = gpl(board, pieceType, color);
-                        Point validRook =
-                            canMove(board, whiteMove, rooks,
-                                    pieceType, endRow, endCol);
-                        if ((int) validRook.getY() == 0) {
-                            whiteQueenRook = true;
-                        } else {
-                            whiteKingRook = true;
-                        }
-                        board[(int) validRook.getX()]
-                            [(int) validRook.getY()] = '-';
-                        board[endRow][endCol] = 'R';
-                    } else if (pieceType == 'B') {
-                        Point[] bishops = gpl(board, pieceType, color);
-                        Point validBish =
-                            canMove(board, whiteMove,
-                                    bishops, pieceType, endRow, endCol);
-                        board[(int) validBish.getX()]
-                            [(int) validBish.getY()] = '-';
-                        board[endRow][endCol] = 'B';
-                    } else if (pieceType == 'N') {
-                        Point[] knights = gpl(board, pieceType, color);
-                        Point validKnight =
-                            canMove(board, whiteMove, knights,
-                                    pieceType, endRow, endCol);
-                        board[(int) validKnight.getX()]
-                            [(int) validKnight.getY()] = '-';
-                        board[endRow][endCol] = 'N';
-                    } else if (pieceType == 'Q') {
-                        for (int i = 0; i < 8; i++) {
-                            for (int j = 0; j < 8; j++) {
-                                if (board[i][j] == 'Q') {
-                                    board[i][j] = '-';
-                                    board[endRow][endCol] = 'Q';
-                                }
-                            }
-                        }
-                    } else if (pieceType == 'K') {
-                        whiteKing = true;
-                        for (int i = 0; i < 8; i++) {
-                            for (int j = 0; j < 8; j++) {
-                                if (board[i][j] == 'K') {
-                                    board[i][j] = '-';
-                                    board[endRow][endCol] = 'K';
-                                }
-                            }
-                        }
-                    }
+                if (depth == forks.length) {
+                    forks = Arrays.copyOf(forks, depth * 2);
+                    forkMoves = Arrays.copyOf(forkMoves, depth * 2);
+                    forkUndos = Arrays.copyOf(forkUndos, depth * 2);
                 }
-                String blackMove = turnMoves[1];
-                lastMove = blackMove;
-                color = 'b';
-                if (Character.isLowerCase(blackMove.charAt(0))) {
-                    pawnCounter = 0;
-                    if (blackMove.contains("x")) {
-                        int startCol =
-                            Character.getNumericValue(blackMove.charAt(0)) - 10;
-                        int endCol =
-                            Character.getNumericValue(blackMove.charAt(2)) - 10;
-                        int row =
-                            8 - Character.getNumericValue(blackMove.charAt(3));
-                        if (blackMove.contains("=")) {
-                            board[row][endCol] =
-                                blackMove.charAt(blackMove.indexOf('=') + 1);
-                            board[row - 1][startCol] = '-';
-                        } else {
-                            board[row][endCol] = 'p';
-                            board[row - 1][startCol] = '-';
-                            if (row == 5) {
-                                if (board[row - 1][endCol] == 'P') {
-                                    board[row - 1][endCol] = '-';
-                                }
-                            }
-                        }
-                    } else {
-                        int col =
-                            Character.getNumericValue(blackMove.charAt(0)) - 10;
-                        int endRow =
-                            8 - Character.getNumericValue(blackMove.charAt(1));
-                        boolean foundPawn = false;
-                        int checkRow = endRow - 1;
-                        while (!foundPawn) {
-                            char pawn = board[checkRow][col];
-                            if (pawn == 'p') {
-                                foundPawn = true;
-                                if (blackMove.contains("=")) {
-                                    board[checkRow][col] = '-';
-                                    board[endRow][col] =
-                                        blackMove.charAt(blackMove.indexOf('=')
-                                            + 1);
-                                } else {
-                                    board[checkRow][col] = '-';
-                                    board[endRow][col] = 'p';
-                                }
-                            } else {
-                                checkRow -= 1;
-                            }
-                        }
-                    }
-                } else if (blackMove.contains("O")) {
-                    pawnCounter += 1;
-                    if (blackMove.contains("O-O-O")) {
-                        board[0][4] = '-';
-                        board[0][2] = 'K';
-                        board[0][3] = 'R';
-                        board[0][0] = '-';
-                    } else {
-                        board[0][4] = '-';
-                        board[0][6] = 'K';
-                        board[0][5] = 'R';
-                        board[0][7] = '-';
-                    }
-                } else {
-                    if (blackMove.contains("x")) {
-                        pawnCounter = 0;
-                    } else {
-                        pawnCounter += 1;
-                    }
-                    char pieceType = blackMove.charAt(0);
-                    String endLoc = getEndLoc(blackMove);
-
-                    int endCol =
-                        Character.getNumericValue(endLoc.charAt(0)) - 10;
-                    int endRow =
-                        8 - Character.getNumericValue(endLoc.charAt(1));
-                    if (pieceType == 'R') {
-                        Point[] rooks = gpl(board, pieceType, color);
-                        Point validRook = canMove(board, blackMove,
-                                rooks, pieceType, endRow, endCol);
-                        if ((int) validRook.getY() == 0) {
-                            blackQueenRook = true;
-                        } else {
-                            blackKingRook = true;
-                        }
-                        board[(int) validRook.getX()]
-                            [(int) validRook.getY()] = '-';
-                        board[endRow][endCol] = 'r';
-                    } else if (pieceType == 'B') {
-                        Point[] bishops = gpl(board, pieceType, color);
-                        Point validBish =
-                            canMove(board, blackMove,
-                                    bishops, pieceType, endRow, endCol);
-                        board[(int) validBish.getX()]
-                            [(int) validBish.getY()] = '-';
-                        board[endRow][endCol] = 'b';
-                    } else if (pieceType == 'N') {
-                        Point[] knights = gpl(board, pieceType, color);
-                        Point validKnight = canMove(board, blackMove,
-                                knights, pieceType, endRow, endCol);
-                        board[(int) validKnight.getX()]
-                            [(int) validKnight.getY()] = '-';
-                        board[endRow][endCol] = 'n';
-                    } else if (pieceType == 'Q') {
-                        for (int i = 0; i < 8; i++) {
-                            for (int j = 0; j < 8; j++) {
-                                if (board[i][j] == 'q') {
-                                    board[i][j] = '-';
-                                    board[endRow][endCol] = 'q';
-                                }
-                            }
-                        }
-                    } else if (pieceType == 'K') {
-                        blackKing = true;
-                        for (int i = 0; i < 8; i++) {
-                            for (int j = 0; j < 8; j++) {
-                                if (board[i][j] == 'k') {
-                                    board[i][j] = '-';
-                                    board[endRow][endCol] = 'k';
-                                }
-                            }
-                        }
-                    }
+                forks[depth] = position;
+                forkMoves[depth] = lastMove;
+                forkUndos[depth++] = lastUndo;
+                position = position.copy();
+                position.unmakeMove(lastMove, lastUndo);
+                line = line.fork();
+                lastMove = Move.NONE;
+            } else if (token == PgnTokenizer.VARIATION_END) {
+                if (depth == 0) {
+                    throw new IllegalArgumentException(
+                        "unmatched ) at offset " + offset(tokens));
                 }
-            } else {
-                String whiteMove = turnMoves[0];
-                lastMove = whiteMove;
-                color = 'w';
-                if (Character.isLowerCase(whiteMove.charAt(0))) {
-                    pawnCounter = 0;
-                    if (whiteMove.contains("x")) {
-                        int startCol =
-                            Character.getNumericValue(whiteMove.charAt(0)) - 10;
-                        int endCol =
-                            Character.getNumericValue(whiteMove.charAt(2)) - 10;
-                        int row =
-                            8 - Character.getNumericValue(whiteMove.charAt(3));
-                        if (whiteMove.contains("=")) {
-                            board[row][endCol] =
-                                whiteMove.charAt(whiteMove.indexOf('=') + 1);
-                            board[row + 1][startCol] = '-';
-                        } else {
-                            board[row][endCol] = 'P';
-                            board[row + 1][startCol] = '-';
-                            if (row == 2) {
-                                if (board[row + 1][endCol] == 'p') {
-                                    board[row + 1][endCol] = '-';
-                                }
-                            }
-                        }
-                    } else {
-                        int col =
-                            Character.getNumericValue(whiteMove.charAt(0)) - 10;
-                        int endRow =
-                            8 - Character.getNumericValue(whiteMove.charAt(1));
-                        boolean foundPawn = false;
-                        int checkRow = endRow + 1;
-                        while (!foundPawn) {
-                            char pawn = board[checkRow][col];
-                            if (pawn == 'P') {
-                                foundPawn = true;
-                                if (whiteMove.contains("=")) {
-                                    board[checkRow][col] = '-';
-                                    board[endRow][col] =
-                                        whiteMove.charAt(whiteMove.indexOf('=')
-                                                + 1);
-                                } else {
-                                    board[checkRow][col] = '-';
-                                    board[endRow][col] = 'P';
-                                }
-                            } else {
-                                checkRow += 1;
-                            }
-                        }
-                    }
-                } else if (whiteMove.contains("O")) {
-                    pawnCounter += 1;
-                    if (whiteMove.contains("O-O-O")) {
-                        board[7][4] = '-';
-                        board[7][2] = 'K';
-                        board[7][3] = 'R';
-                        board[7][0] = '-';
-                    } else {
-                        board[7][4] = '-';
-                        board[7][6] = 'K';
-                        board[7][5] = 'R';
-                        board[7][7] = '-';
-                    }
-                } else {
-                    if (whiteMove.contains("x")) {
-                        pawnCounter = 0;
-                    } else {
-                        pawnCounter += 1;
-                    }
-                    char pieceType = whiteMove.charAt(0);
-                    String endLoc = getEndLoc(whiteMove);
-                    int endCol =
-                        Character.getNumericValue(endLoc.charAt(0)) - 10;
-                    int endRow =
-                        8 - Character.getNumericValue(endLoc.charAt(1));
-                    if (pieceType == 'R') {
-                        Point[] rooks = gpl(board, pieceType, color);
-                        Point validRook =
-                            canMove(board, whiteMove, rooks,
-                                    pieceType, endRow, endCol);
-                        board[(int) validRook.getX()]
-                            [(int) validRook.getY()] = '-';
-                        board[endRow][endCol] = 'R';
-                    } else if (pieceType == 'B') {
-                        Point[] bishops = gpl(board, pieceType, color);
-                        Point validBish = canMove(board, whiteMove,
-                                bishops, pieceType, endRow, endCol);
-                        board[(int) validBish.getX()]
-                            [(int) validBish.getY()] = '-';
-                        board[endRow][endCol] = 'B';
-                    } else if (pieceType == 'N') {
-                        Point[] knights = gpl(board, pieceType, color);
-                        Point validKnight = canMove(board, whiteMove,
-                                knights, pieceType, endRow, endCol);
-                        board[(int) validKnight.getX()]
-                            [(int) validKnight.getY()] = '-';
-                        board[endRow][endCol] = 'N';
-                    } else if (pieceType == 'Q') {
-                        for (int i = 0; i < 8; i++) {
-                            for (int j = 0; j < 8; j++) {
-                                if (board[i][j] == 'Q') {
-                                    board[i][j] = '-';
-                                    board[endRow][endCol] = 'Q';
-                                }
-                            }
-                        }
-                    } else if (pieceType == 'K') {
-                        for (int i = 0; i < 8; i++) {
-                            for (int j = 0; j < 8; j++) {
-                                if (board[i][j] == 'K') {
-                                    board[i][j] = '-';
-                                    board[endRow][endCol] = 'K';
-                                }
-                            }
-                        }
-                    }
+                line.end(position);
+                line = line.parent();
+                position = forks[--depth];
+                forks[depth] = null;
+                lastMove = forkMoves[depth];
+                lastUndo = forkUndos[depth];
+            } else if (token == PgnTokenizer.SAN) {
+                int san = decodeMove(tokens);
+                meter.ply();
+                int move = canMove(position, san, scratch);
+                if (move == Move.NONE) {
+                    throw new IllegalArgumentException("illegal move "
+                        + San.toString(san) + " in " + position.fen());
                 }
+                lastUndo = position.makeMove(move);
+                lastMove = move;
+                line.addPly();
             }
         }
-        int dashes = 0;
-        String masterString = "";
-        for (int i = 0; i < 8; i++) {
-            String rowString = "";
-            dashes = 0;
-            for (int j = 0; j < 8; j++) {
-                if (board[i][j] == '-') {
-                    dashes += 1;
-                } else {
-                    if (dashes != 0 && j != 0) {
-                        rowString += Integer.toString(dashes);
-                        dashes = 0;
-                    }
-                    rowString += board[i][j];
-                }
-            }
-            if (dashes > 0) {
-                rowString += Integer.toString(dashes);
+        if (depth > 0) {
+            throw new IllegalArgumentException(depth
+                + " variations not closed");
+        }
+        line.end(position);
+        return line;
+    }
+
+    /**
+     * Play out every line of game, the main line and each variation, and
+     * return where each ends.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @return the final position of each line as a FEN placement, the main
+     *     line first and then the variations in movetext order
+     */
+    public static List<String> finalPositions(ByteBuffer game) {
+        List<String> placements = new ArrayList<>();
+        for (Variation line : replayVariations(game).lines()) {
+            placements.add(line.end().placement());
+        }
+        return placements;
+    }
+
+    /**
+     * Advance tokens to the next move and decode it, counting each token
+     * read against meter.
+     *
+     * @return the move, packed by `San.decode`, or `San.INVALID` at the
+     *     end of the game
+     * @throws IllegalArgumentException if a SAN token is not a move
+     */
+    private static int nextMove(PgnTokenizer tokens, Budget.Meter meter) {
+        int token;
+        while ((token = tokens.next()) != PgnTokenizer.END) {
+            meter.token();
+            if (token != PgnTokenizer.SAN) {
+                continue;
             }
-            masterString += rowString + "/";
+            return decodeMove(tokens);
+        }
+        return San.INVALID;
+    }
+
+    /**
+     * Decode the `SAN` token tokens stopped on. Comments are tokens of
+     * their own, so a SAN-shaped token that is not a move is corrupt
+     * movetext.
+     *
+     * @return the move, packed by `San.decode`
+     * @throws IllegalArgumentException if the token is not a move
+     */
+    static int decodeMove(PgnTokenizer tokens) {
+        int move = San.decode(tokens.buffer(), tokens.start(), tokens.end());
+        if (move == San.INVALID) {
+            throw new IllegalArgumentException("unreadable move "
+                + tokens.text() + " at offset " + offset(tokens));
         }
-        masterString =
-            masterString.substring(0, masterString.length() - 1);
-        return masterString;
+        return move;
+    }
+
+    /**
+     * @return where the token tokens stopped on starts, counting from the
+     *     start of the game
+     */
+    private static int offset(PgnTokenizer tokens) {
+        return tokens.start() - tokens.buffer().position();
+    }
+
+    /**
+     * Replay every game from here on through cache, or from the starting
+     * position again if cache is null.
+     *
+     * @param cache the opening positions to share between games, or null
+     */
+    public static void useOpeningCache(OpeningCache cache) {
+        openingCache = cache;
+    }
+
+    /**
+     * Give up replaying any game from here on that goes over budget, with
+     * a `BudgetExceededException`; in a batch run the game is then
+     * rejected and the run goes on with the next.
+     *
+     * @param budget the limits per game, `Budget.UNLIMITED` for none
+     */
+    public static void useBudget(Budget budget) {
+        PgnReader.budget = budget;
+    }
+
+    /**
+     * Play out the moves in game, handing eachPly the FEN of the position
+     * after every move. One `FenWriter` serves the whole game, so the text
+     * passed in is overwritten by the next ply; copy it to keep it.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @param eachPly called with the full FEN after each move
+     * @return the position after the last move
+     */
+    public static Position forEachFen(ByteBuffer game,
+            Consumer<? super CharSequence> eachPly) {
+        FenWriter fen = new FenWriter();
+        return replay(game, position -> eachPly.accept(fen.update(position)));
+    }
+
+    /**
+     * Return the Zobrist key of every position in game: element 0 is the
+     * starting position, element i the position after ply i and the last
+     * element the final position.
+     *
+     * @param game the PGN text of a chess game or opening
+     * @return the position keys, one more than there are plies
+     */
+    public static long[] positionKeys(ByteBuffer game) {
+        LongStream.Builder keys = LongStream.builder();
+        keys.add(Position.initial().key());
+        replay(game, position -> keys.add(position.key()));
+        return keys.build().toArray();
+    }
+
+    /**
+     * @return the Zobrist key of game's final position
+     */
+    public static long finalKey(ByteBuffer game) {
+        return replay(game).key();
     }
 
     /**
@@ -693,6 +534,7 @@ public class PgnReader {
      *
      * @param path the relative or abolute path of the file to read
      * @return a String containing the content of the file
+     * @throws UncheckedIOException if the file cannot be read
      */
     public static String fileContent(String path) {
         Path file = Paths.get(path);
@@ -704,23 +546,307 @@ public class PgnReader {
                 sb.append(line + "\n");
             }
         } catch (IOException e) {
-            System.err.format("IOException: %s%n", e);
-            System.exit(1);
+            throw new UncheckedIOException(e);
         }
         return sb.toString();
     }
 
+    /**
+     * Print the Seven Tag Roster and final position of every game in the
+     * files and directories named on the command line, using all cores.
+     *
+     * Usage: see `USAGE`. An unknown option or a bad value for one prints
+     * what is wrong and the usage, and exits with status 1.
+     *
+     * A game that cannot be read is left out and reported, with its file,
+     * offset and the reason, on standard error or in the `--rejects` file,
+     * and the run goes on with the next game. So is a game that goes over
+     * the `--max-` limits, see `Budget`.
+     *
+     * With `--checkpoint` the run saves its progress every few seconds;
+     * started again with `--resume` after a crash it goes on from the last
+     * checkpoint, cutting the output file back to what that checkpoint
+     * covers, and ends with the same output as a run that never stopped.
+     * It refuses a checkpoint saved for other inputs or output options.
+     *
+     * With `--follow file` the one file named is followed as it grows
+     * instead, see `Follower`, until the program is stopped.
+     */
     public static void main(String[] args) {
-        String game = fileContent(args[0]);
-        System.out.format("Event: %s%n", tagValue("Event", game));
-        System.out.format("Site: %s%n", tagValue("Site", game));
-        System.out.format("Date: %s%n", tagValue("Date", game));
-        System.out.format("Round: %s%n", tagValue("Round", game));
-        System.out.format("White: %s%n", tagValue("White", game));
-        System.out.format("Black: %s%n", tagValue("Black", game));
-        System.out.format("Result: %s%n", tagValue("Result", game));
-        System.out.println("Final Position:");
-        System.out.println(finalPosition(game));
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean ordered = true;
+        int fields = TAGS | PLACEMENT;
+        OpeningCache cache = null;
+        Budget limits = Budget.UNLIMITED;
+        Predicate<PgnHeader> filter = null;
+        boolean follow = false;
+        String output = null;
+        String checkpoint = null;
+        String rejectFile = null;
+        boolean resume = false;
+        List<String> inputs = new ArrayList<>();
+        // the options that change what is written, for the checkpoint
+        List<String> job = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = (int) number(args[i], args[++i], 1,
+                    Batch.MAX_THREADS);
+            } else if (args[i].equals("--unordered")) {
+                ordered = false;
+            } else if (args[i].equals("--full-fen")) {
+                fields = fields & ~PLACEMENT | FEN;
+                job.add(args[i]);
+            } else if (args[i].equals("--fields") && i + 1 < args.length) {
+                job.add(args[i] + " " + args[i + 1]);
+                try {
+                    fields = parseFields(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    usage(e.getMessage());
+                }
+            } else if (args[i].equals("--where") && i + 1 < args.length) {
+                job.add(args[i] + " " + args[i + 1]);
+                try {
+                    TagFilter where = TagFilter.parse(args[++i]);
+                    filter = filter == null ? where : filter.and(where);
+                } catch (IllegalArgumentException e) {
+                    usage(e.getMessage());
+                }
+            } else if (args[i].equals("--follow")) {
+                follow = true;
+            } else if (args[i].equals("--output") && i + 1 < args.length) {
+                output = args[++i];
+            } else if (args[i].equals("--checkpoint")
+                    && i + 1 < args.length) {
+                checkpoint = args[++i];
+            } else if (args[i].equals("--resume")) {
+                resume = true;
+            } else if (args[i].equals("--rejects") && i + 1 < args.length) {
+                rejectFile = args[++i];
+            } else if (args[i].equals("--opening-cache")
+                    && i + 1 < args.length) {
+                cache = new OpeningCache((int) number(args[i], args[++i], 1,
+                    Integer.MAX_VALUE));
+            } else if (args[i].equals("--max-plies") && i + 1 < args.length) {
+                job.add(args[i] + " " + args[i + 1]);
+                limits = limits.withMaxPlies((int) number(args[i], args[++i],
+                    0, Integer.MAX_VALUE));
+            } else if (args[i].equals("--max-tokens")
+                    && i + 1 < args.length) {
+                job.add(args[i] + " " + args[i + 1]);
+                limits = limits.withMaxTokens((int) number(args[i],
+                    args[++i], 0, Integer.MAX_VALUE));
+            } else if (args[i].equals("--max-millis")
+                    && i + 1 < args.length) {
+                job.add(args[i] + " " + args[i + 1]);
+                limits = limits.withMaxMillis(number(args[i], args[++i], 0,
+                    Budget.MAX_MILLIS));
+            } else if (args[i].startsWith("--")) {
+                usage("unknown option or missing value: " + args[i]);
+            } else {
+                inputs.add(args[i]);
+            }
+        }
+        if ((checkpoint != null && (output == null || !ordered))
+                || (resume && checkpoint == null)) {
+            System.err.println("--checkpoint needs --output and ordered "
+                + "output, and --resume needs --checkpoint");
+            System.exit(1);
+        }
+        FileOutputStream file = null;
+        FileOutputStream rejectStream = null;
+        try {
+            file = output == null ? new FileOutputStream(FileDescriptor.out)
+                : new FileOutputStream(output, resume);
+            rejectStream = rejectFile == null
+                ? new FileOutputStream(FileDescriptor.err)
+                : new FileOutputStream(rejectFile, resume);
+        } catch (IOException e) {
+            System.err.format("IOException: %s%n", e);
+            System.exit(1);
+        }
+        PrintStream out = new PrintStream(
+            new BufferedOutputStream(file, 1 << 16), false);
+        PrintStream rejects = new PrintStream(
+            new BufferedOutputStream(rejectStream), false);
+        int wanted = fields;
+        useOpeningCache(cache);
+        useBudget(limits);
+        if (follow) {
+            if (inputs.size() != 1) {
+                System.err.println("--follow takes exactly one file");
+                System.exit(1);
+            }
+            try {
+                Follower follower = new Follower(Paths.get(inputs.get(0)),
+                    filter, game -> formatGame(game, wanted), out);
+                follower.setRejects(rejects);
+                follower.follow();
+            } catch (IOException | UncheckedIOException e) {
+                System.err.format("IOException: %s%n", e);
+                System.exit(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        try {
+            List<Path> files = Batch.expand(inputs);
+            Batch batch = new Batch(threads, ordered, out);
+            batch.setRejects(rejects);
+            if (checkpoint != null) {
+                Path path = Paths.get(checkpoint);
+                for (Path input : files) {
+                    job.add(input.toString());
+                }
+                String fingerprint = Checkpoint.fingerprint(job);
+                FileChannel rejectChannel = rejectFile == null ? null
+                    : rejectStream.getChannel();
+                batch.setCheckpoint(resume
+                    ? Checkpoint.resume(path, fingerprint, file.getChannel(),
+                        rejectChannel)
+                    : Checkpoint.start(path, fingerprint, file.getChannel(),
+                        rejectChannel));
+            }
+            batch.run(files, filter, game -> formatGame(game, wanted));
+            if (batch.rejected() > 0) {
+                System.err.format("%d games rejected%n", batch.rejected());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.format("IOException: %s%n", e);
+            System.exit(1);
+        }
+        if (cache != null) {
+            System.err.println(cache);
+        }
+    }
+
+    /**
+     * @return the value of option as a whole number from min to max
+     */
+    private static long number(String option, String value, long min,
+            long max) {
+        try {
+            long n = Long.parseLong(value);
+            if (n >= min && n <= max) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        usage(option + " takes a whole number from " + min + " to " + max
+            + ", not " + value);
+        return min;
+    }
+
+    /**
+     * Print problem and the usage, and exit with status 1.
+     */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println(USAGE);
+        System.exit(1);
+    }
+
+    /**
+     * Print the Seven Tag Roster and the final position of one game.
+     *
+     * @param game the PGN text of a single game
+     */
+    public static void printGame(ByteBuffer game) {
+        System.out.print(formatGame(game));
+    }
 
+    /**
+     * Format the Seven Tag Roster and the final position of one game the
+     * way `printGame` prints them.
+     *
+     * @param game the PGN text of a single game
+     * @return the lines to print, each ending in a line separator
+     */
+    public static String formatGame(ByteBuffer game) {
+        return formatGame(game, false);
+    }
+
+    /**
+     * Same as `formatGame(ByteBuffer)`, optionally printing all six FEN
+     * fields of the final position rather than just the placement.
+     */
+    public static String formatGame(ByteBuffer game, boolean fullFen) {
+        return formatGame(game, TAGS | (fullFen ? FEN : PLACEMENT));
+    }
+
+    /**
+     * Format just the requested fields of one game: with `TAGS` the Seven
+     * Tag Roster, with `PLACEMENT` or `FEN` the final position, as the
+     * placement or as a full FEN, with `PLIES` the full FEN after every
+     * move and with `VARIATIONS` the final position of every variation,
+     * as the placement unless `FEN` is asked for. Without any of the last
+     * four the movetext is not read at all, and with `TAGS` missing the
+     * tags are not parsed.
+     *
+     * @param game the PGN text of a single game
+     * @param fields the fields wanted, e.g. `TAGS | PLACEMENT`
+     * @return the lines to print, each ending in a line separator
+     */
+    public static String formatGame(ByteBuffer game, int fields) {
+        StringBuilder sb = new StringBuilder();
+        String eol = System.lineSeparator();
+        if ((fields & TAGS) != 0) {
+            PgnHeader header = PgnHeader.parse(game);
+            for (String tagName : PgnHeader.SEVEN_TAG_ROSTER) {
+                sb.append(tagName).append(": ")
+                    .append(header.getOrNotGiven(tagName)).append(eol);
+            }
+        }
+        if ((fields & (PLACEMENT | FEN | PLIES | VARIATIONS)) == 0) {
+            return sb.toString();
+        }
+        Position position = null;
+        if ((fields & PLIES) != 0) {
+            sb.append("Plies:").append(eol);
+            position = forEachFen(game, fen -> sb.append(fen).append(eol));
+        }
+        if ((fields & VARIATIONS) != 0) {
+            Variation main = replayVariations(game);
+            List<Variation> lines = main.lines();
+            sb.append("Variations:").append(eol);
+            for (Variation line : lines.subList(1, lines.size())) {
+                Position end = line.end();
+                sb.append((fields & FEN) != 0 ? end.fen() : end.placement())
+                    .append(eol);
+            }
+            position = main.end();
+        }
+        if (position == null) {
+            position = replay(game);
+        }
+        if ((fields & FEN) != 0) {
+            sb.append("Final Position:").append(eol)
+                .append(position.fen()).append(eol);
+        } else if ((fields & PLACEMENT) != 0) {
+            sb.append("Final Position:").append(eol)
+                .append(position.placement()).append(eol);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parse a comma-separated list of field names, e.g. "tags,fen".
+     *
+     * @param names any of tags, placement, fen, plies and variations
+     * @return the fields, or'ed together
+     * @throws IllegalArgumentException if a name is not a field
+     */
+    public static int parseFields(String names) {
+        int fields = 0;
+        for (String name : names.split(",")) {
+            int i = Arrays.asList(FIELD_NAMES).indexOf(name.trim());
+            if (i < 0) {
+                throw new IllegalArgumentException("unknown field " + name
+                    + ", expected one of " + String.join(",", FIELD_NAMES));
+            }
+            fields |= 1 << i;
+        }
+        return fields;
     }
 }
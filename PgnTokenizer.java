@@ -0,0 +1,354 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits PGN text held in a `ByteBuffer` into tokens without copying it.
+ *
+ * Call `next()` to advance; it returns the type of the token it stopped on.
+ * The token's bytes are `[start(), end())` of the buffer. For a `TAG` token
+ * the name and value spans are also available. No objects are created while
+ * scanning, so the buffer may be a `MappedByteBuffer` over a whole file.
+ *
+ * Annotations come back as tokens of their own: a `{...}` or `;` comment or
+ * a `%` escape line as `COMMENT`, `$n` as `NAG` and the parentheses around a
+ * recursive variation as `VARIATION_START` and `VARIATION_END`. With
+ * `setSkipAnnotations(true)` they are stepped over instead, and a variation
+ * with everything nested in it is skipped in one pass over its bytes, so
+ * only the moves of the main line are returned.
+ *
+ * @see http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm#c8
+ */
+public final class PgnTokenizer {
+
+    public static final int END = 0;
+    public static final int TAG = 1;
+    public static final int MOVE_NUMBER = 2;
+    public static final int SAN = 3;
+    public static final int RESULT = 4;
+    public static final int UNKNOWN = 5;
+    public static final int COMMENT = 6;
+    public static final int NAG = 7;
+    public static final int VARIATION_START = 8;
+    public static final int VARIATION_END = 9;
+
+    private ByteBuffer buf;
+    private int first;
+    private int pos;
+    private int limit;
+    private boolean skipAnnotations;
+
+    private int start;
+    private int end;
+    private int number;
+    private int nameStart;
+    private int nameEnd;
+    private int valueStart;
+    private int valueEnd;
+
+    public PgnTokenizer(ByteBuffer buf) {
+        reset(buf);
+    }
+
+    /**
+     * Start tokenizing buf from its position up to its limit. The buffer's
+     * own position is never changed.
+     *
+     * @param buf the PGN text to tokenize
+     */
+    public void reset(ByteBuffer buf) {
+        this.buf = buf;
+        this.first = buf.position();
+        this.pos = first;
+        this.limit = buf.limit();
+    }
+
+    /**
+     * Step over comments, NAGs and whole variations rather than returning
+     * them, from the next call to `next()` on. The setting is kept across
+     * `reset`.
+     *
+     * @param skip whether to skip annotations
+     */
+    public void setSkipAnnotations(boolean skip) {
+        this.skipAnnotations = skip;
+    }
+
+    public ByteBuffer buffer() {
+        return buf;
+    }
+
+    /**
+     * @return the index just past the last byte consumed
+     */
+    public int position() {
+        return pos;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    /**
+     * @return the value of the last `MOVE_NUMBER` or `NAG` token
+     */
+    public int number() {
+        return number;
+    }
+
+    public int nameStart() {
+        return nameStart;
+    }
+
+    public int nameEnd() {
+        return nameEnd;
+    }
+
+    public int valueStart() {
+        return valueStart;
+    }
+
+    public int valueEnd() {
+        return valueEnd;
+    }
+
+    /**
+     * Advance to the next token.
+     *
+     * @return the token type, or `END` when the buffer is exhausted
+     */
+    public int next() {
+        while (true) {
+            int token = scan();
+            // the annotation types are numbered from COMMENT up
+            if (!skipAnnotations || token < COMMENT) {
+                return token;
+            }
+            if (token == VARIATION_START) {
+                skipVariation();
+            }
+        }
+    }
+
+    private int scan() {
+        while (pos < limit && isSpace(buf.get(pos))) {
+            pos++;
+        }
+        if (pos >= limit) {
+            start = end = limit;
+            return END;
+        }
+        start = pos;
+        byte b = buf.get(pos);
+        if (b == '[') {
+            return tag();
+        } else if (b == '*') {
+            end = ++pos;
+            return RESULT;
+        } else if (isDigit(b)) {
+            return numeric();
+        } else if (isSymbolStart(b)) {
+            pos = symbolEnd(pos);
+            end = pos;
+            return SAN;
+        } else if (b == '{' || b == ';' || (b == '%' && atLineStart(pos))) {
+            pos = commentEnd(pos);
+            end = pos;
+            return COMMENT;
+        } else if (b == '$') {
+            return nag();
+        } else if (b == '(') {
+            end = ++pos;
+            return VARIATION_START;
+        } else if (b == ')') {
+            end = ++pos;
+            return VARIATION_END;
+        }
+        end = ++pos;
+        return UNKNOWN;
+    }
+
+    private boolean atLineStart(int p) {
+        return p == first || buf.get(p - 1) == '\n';
+    }
+
+    /**
+     * @return the index just past the comment at p: past the `}` of a
+     *     brace comment, which does not nest, or past the end of the line
+     *     of a `;` comment or `%` escape
+     */
+    private int commentEnd(int p) {
+        byte close = buf.get(p) == '{' ? (byte) '}' : (byte) '\n';
+        p++;
+        while (p < limit && buf.get(p) != close) {
+            p++;
+        }
+        return p < limit ? p + 1 : p;
+    }
+
+    /**
+     * Scan `$n`, a numeric annotation glyph.
+     */
+    private int nag() {
+        int p = pos + 1;
+        int n = 0;
+        while (p < limit && isDigit(buf.get(p))) {
+            n = n * 10 + (buf.get(p) - '0');
+            p++;
+        }
+        number = n;
+        pos = end = p;
+        return NAG;
+    }
+
+    /**
+     * Skip to just past the `)` that closes the variation just opened,
+     * stepping over the variations nested in it and over comments, which
+     * may hold unbalanced parentheses.
+     */
+    private void skipVariation() {
+        int depth = 1;
+        int p = pos;
+        while (p < limit) {
+            byte b = buf.get(p);
+            if (b == '{' || b == ';' || (b == '%' && atLineStart(p))) {
+                p = commentEnd(p);
+                continue;
+            }
+            p++;
+            if (b == '(') {
+                depth++;
+            } else if (b == ')' && --depth == 0) {
+                break;
+            }
+        }
+        pos = end = p;
+    }
+
+    /**
+     * Scan `[Name "value"]`, which may not span lines. A backslash escapes
+     * a quote or a backslash inside the value.
+     */
+    private int tag() {
+        pos++;
+        while (pos < limit && isSpace(buf.get(pos))) {
+            pos++;
+        }
+        nameStart = pos;
+        while (pos < limit && isSymbolByte(buf.get(pos))) {
+            pos++;
+        }
+        nameEnd = pos;
+        while (pos < limit && buf.get(pos) != '"' && buf.get(pos) != ']'
+                && buf.get(pos) != '\n') {
+            pos++;
+        }
+        valueStart = valueEnd = pos;
+        if (pos < limit && buf.get(pos) == '"') {
+            valueStart = ++pos;
+            while (pos < limit && buf.get(pos) != '"'
+                    && buf.get(pos) != '\n') {
+                if (buf.get(pos) == '\\' && pos + 1 < limit) {
+                    pos++;
+                }
+                pos++;
+            }
+            valueEnd = pos;
+        }
+        while (pos < limit && buf.get(pos) != ']' && buf.get(pos) != '\n') {
+            pos++;
+        }
+        if (pos < limit && buf.get(pos) == ']') {
+            pos++;
+        }
+        end = pos;
+        return TAG;
+    }
+
+    /**
+     * A token starting with a digit is a move number (`12.` or `12...`),
+     * a result (`1-0`, `0-1`, `1/2-1/2`) or castling written with zeros.
+     */
+    private int numeric() {
+        int p = pos;
+        int n = 0;
+        while (p < limit && isDigit(buf.get(p))) {
+            n = n * 10 + (buf.get(p) - '0');
+            p++;
+        }
+        if (p < limit && buf.get(p) == '.') {
+            while (p < limit && buf.get(p) == '.') {
+                p++;
+            }
+            number = n;
+            pos = end = p;
+            return MOVE_NUMBER;
+        }
+        p = symbolEnd(pos);
+        pos = end = p;
+        if (matches("1-0") || matches("0-1") || matches("1/2-1/2")) {
+            return RESULT;
+        }
+        return SAN;
+    }
+
+    private boolean matches(String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (buf.get(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int symbolEnd(int p) {
+        while (p < limit && isSymbolByte(buf.get(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    /**
+     * @return the current token decoded as text; allocates, so it is meant
+     *     for diagnostics rather than the scanning loop
+     */
+    public String text() {
+        return text(start, end);
+    }
+
+    public String text(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buf.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSymbolStart(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    /**
+     * Symbol continuation bytes, plus the `!?` suffix annotations that are
+     * commonly glued onto a move.
+     */
+    private static boolean isSymbolByte(byte b) {
+        return isSymbolStart(b) || isDigit(b) || b == '_' || b == '+'
+            || b == '#' || b == '=' || b == ':' || b == '-' || b == '/'
+            || b == '!' || b == '?';
+    }
+}
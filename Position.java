@@ -0,0 +1,495 @@
+import java.util.SplittableRandom;
+
+/**
+ * A chess position held as twelve piece bitboards plus occupancy.
+ *
+ * Pieces are numbered 0-11: white pawn, knight, bishop, rook, queen and
+ * king, then the black pieces in the same order, so `piece(color, type)`
+ * is `color * 6 + type - 1` with the type constants from `San`. Besides
+ * placement the position tracks the side to move, castling rights, the en
+ * passant square and both move counters, so it can print a full FEN, and
+ * a Zobrist key that is updated incrementally as pieces come and go.
+ *
+ * @see http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm#c16.1
+ */
+public final class Position {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int NONE = -1;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    private static final String LETTERS = "PNBRQKpnbrqk";
+
+    public static final String INITIAL_FEN =
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // castling rights kept when a piece leaves or lands on each square
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            CASTLING_KEPT[sq] = 15;
+        }
+        CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+    }
+
+    // Zobrist keys: one per piece and square, castling rights set, en
+    // passant file and black to move; a fixed seed keeps them stable
+    // across runs so stored keys stay valid
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EP_KEYS = new long[8];
+    private static final long SIDE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5eed5eed5eedL);
+        for (int piece = 0; piece < 12; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECE_KEYS[piece][sq] = random.nextLong();
+            }
+        }
+        long[] rightKeys = new long[4];
+        for (int right = 0; right < 4; right++) {
+            rightKeys[right] = random.nextLong();
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            for (int right = 0; right < 4; right++) {
+                if ((rights & (1 << right)) != 0) {
+                    CASTLING_KEYS[rights] ^= rightKeys[right];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            EP_KEYS[file] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    private static final Position INITIAL = fromFen(INITIAL_FEN);
+
+    private final long[] pieces = new long[12];
+    private final long[] colors = new long[2];
+    private long occupied;
+    private int sideToMove;
+    private int castling;
+    private int epSquare = NONE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private long key;
+
+    /**
+     * @return the standard starting position
+     */
+    public static Position initial() {
+        return INITIAL.copy();
+    }
+
+    /**
+     * Parse a position from FEN. Missing trailing fields take their
+     * starting-position defaults.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @return the position
+     * @throws IllegalArgumentException if the placement field is malformed
+     */
+    public static Position fromFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        Position position = new Position();
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < fields[0].length(); i++) {
+            char c = fields[0].charAt(i);
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int piece = LETTERS.indexOf(c);
+                if (piece < 0 || file > 7 || rank < 0) {
+                    throw new IllegalArgumentException("bad FEN: " + fen);
+                }
+                position.put(piece, Bitboards.square(file, rank));
+                file++;
+            }
+        }
+        if (fields.length > 1 && fields[1].equals("b")) {
+            position.sideToMove = BLACK;
+        }
+        if (fields.length > 2) {
+            for (char c : fields[2].toCharArray()) {
+                int right = "KQkq".indexOf(c);
+                if (right >= 0) {
+                    position.castling |= 1 << right;
+                }
+            }
+        }
+        if (fields.length > 3 && fields[3].length() == 2) {
+            position.epSquare = Bitboards.square(fields[3].charAt(0) - 'a',
+                fields[3].charAt(1) - '1');
+        }
+        if (fields.length > 5) {
+            position.halfmoveClock = Integer.parseInt(fields[4]);
+            position.fullmoveNumber = Integer.parseInt(fields[5]);
+        }
+        position.key ^= position.stateKey();
+        return position;
+    }
+
+    /**
+     * @return an independent copy of this position
+     */
+    public Position copy() {
+        Position copy = new Position();
+        System.arraycopy(pieces, 0, copy.pieces, 0, 12);
+        copy.colors[WHITE] = colors[WHITE];
+        copy.colors[BLACK] = colors[BLACK];
+        copy.occupied = occupied;
+        copy.sideToMove = sideToMove;
+        copy.castling = castling;
+        copy.epSquare = epSquare;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.key = key;
+        return copy;
+    }
+
+    public static int piece(int color, int type) {
+        return color * 6 + type - 1;
+    }
+
+    public static int colorOf(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    public static int typeOf(int piece) {
+        return piece % 6 + 1;
+    }
+
+    /**
+     * @return the FEN letter of piece, upper case for white
+     */
+    public static char letterOf(int piece) {
+        return LETTERS.charAt(piece);
+    }
+
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[piece(color, type)];
+    }
+
+    public long occupied(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public int castling() {
+        return castling;
+    }
+
+    public int epSquare() {
+        return epSquare;
+    }
+
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Return the position's Zobrist key, which is kept up to date move by
+     * move. Positions that agree in placement, side to move, castling
+     * rights and en passant square have the same key; the move counters
+     * do not count.
+     *
+     * @return the 64-bit Zobrist key
+     */
+    public long key() {
+        return key;
+    }
+
+    /**
+     * @return the Zobrist key computed from scratch, which always equals
+     *     `key()`
+     */
+    public long computeKey() {
+        long k = stateKey();
+        for (int piece = 0; piece < 12; piece++) {
+            for (long b = pieces[piece]; b != 0; b &= b - 1) {
+                k ^= PIECE_KEYS[piece][Long.numberOfTrailingZeros(b)];
+            }
+        }
+        return k;
+    }
+
+    // the part of the key that does not come from placement
+    private long stateKey() {
+        long k = CASTLING_KEYS[castling];
+        if (epSquare != NONE) {
+            k ^= EP_KEYS[Bitboards.fileOf(epSquare)];
+        }
+        return sideToMove == BLACK ? k ^ SIDE_KEY : k;
+    }
+
+    /**
+     * @return the piece on sq, or `NONE` if it is empty
+     */
+    public int pieceAt(int sq) {
+        long b = Bitboards.bit(sq);
+        if ((occupied & b) == 0) {
+            return NONE;
+        }
+        int first = (colors[WHITE] & b) != 0 ? 0 : 6;
+        for (int piece = first; piece < first + 6; piece++) {
+            if ((pieces[piece] & b) != 0) {
+                return piece;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the pieces of color that attack sq, given the occupancy
+     *     occupied for sliding pieces
+     */
+    public long attackers(int sq, int color, long occupied) {
+        long queens = pieces(color, San.QUEEN);
+        return (Bitboards.PAWN_ATTACKS[1 - color][sq]
+                & pieces(color, San.PAWN))
+            | (Bitboards.KNIGHT_ATTACKS[sq] & pieces(color, San.KNIGHT))
+            | (Bitboards.KING_ATTACKS[sq] & pieces(color, San.KING))
+            | (Bitboards.bishopAttacks(sq, occupied)
+                & (pieces(color, San.BISHOP) | queens))
+            | (Bitboards.rookAttacks(sq, occupied)
+                & (pieces(color, San.ROOK) | queens));
+    }
+
+    /**
+     * @return true if the side to move is in check
+     */
+    public boolean inCheck() {
+        int king = Long.numberOfTrailingZeros(pieces(sideToMove, San.KING));
+        return attackers(king, 1 - sideToMove, occupied) != 0;
+    }
+
+    /**
+     * Play move for the side to move.
+     *
+     * @param move a move packed by `Move`
+     */
+    public void play(int move) {
+        makeMove(move);
+    }
+
+    private void put(int piece, int sq) {
+        long b = Bitboards.bit(sq);
+        pieces[piece] |= b;
+        colors[colorOf(piece)] |= b;
+        occupied |= b;
+        key ^= PIECE_KEYS[piece][sq];
+    }
+
+    private void remove(int piece, int sq) {
+        long b = ~Bitboards.bit(sq);
+        pieces[piece] &= b;
+        colors[colorOf(piece)] &= b;
+        occupied &= b;
+        key ^= PIECE_KEYS[piece][sq];
+    }
+
+    /**
+     * Move the piece on from to to for the side to move, and update
+     * castling rights, the en passant square, the clocks and the side to
+     * move. A king moving two squares castles; a pawn moving onto the en
+     * passant square captures en passant.
+     *
+     * @param from the origin square of the moving piece
+     * @param to the target square
+     * @param promotion the type promoted to, or 0
+     */
+    public void play(int from, int to, int promotion) {
+        makeMove(Move.of(from, to, promotion));
+    }
+
+    /**
+     * Play move for the side to move and return what `unmakeMove` needs to
+     * take it back: the captured piece, castling rights, en passant square
+     * and halfmove clock from before the move, packed into a `long`.
+     *
+     * @param move a move packed by `Move`
+     * @return the undo information for move
+     */
+    public long makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int promotion = Move.promotion(move);
+        int piece = pieceAt(from);
+        int type = typeOf(piece);
+        int captured = pieceAt(to);
+        long undo = (captured + 1) | (castling << 4)
+            | ((long) (epSquare + 1) << 8) | ((long) halfmoveClock << 16);
+        key ^= stateKey();
+        halfmoveClock++;
+        if (captured != NONE) {
+            remove(captured, to);
+            halfmoveClock = 0;
+        }
+        if (type == San.PAWN) {
+            halfmoveClock = 0;
+            if (to == epSquare) {
+                remove(piece(1 - sideToMove, San.PAWN), behind(to));
+            }
+        }
+        remove(piece, from);
+        put(promotion != 0 ? piece(sideToMove, promotion) : piece, to);
+        if (type == San.KING && Math.abs(to - from) == 2) {
+            moveCastlingRook(from, to, false);
+        }
+        castling &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        epSquare = type == San.PAWN && Math.abs(to - from) == 16
+            ? (from + to) / 2 : NONE;
+        if (sideToMove == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = 1 - sideToMove;
+        key ^= stateKey();
+        return undo;
+    }
+
+    /**
+     * Take back move, which must be the last move made, restoring the
+     * position, key included, to what it was before.
+     *
+     * @param move the move passed to `makeMove`
+     * @param undo the value `makeMove` returned for it
+     */
+    public void unmakeMove(int move, long undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        key ^= stateKey();
+        sideToMove = 1 - sideToMove;
+        if (sideToMove == BLACK) {
+            fullmoveNumber--;
+        }
+        castling = (int) (undo >>> 4) & 15;
+        epSquare = (int) (undo >>> 8 & 127) - 1;
+        halfmoveClock = (int) (undo >>> 16);
+        int piece = pieceAt(to);
+        remove(piece, to);
+        put(Move.promotion(move) != 0 ? piece(sideToMove, San.PAWN) : piece,
+            from);
+        int type = typeOf(piece);
+        int captured = (int) (undo & 15) - 1;
+        if (captured != NONE) {
+            put(captured, to);
+        } else if (type == San.PAWN && to == epSquare) {
+            put(piece(1 - sideToMove, San.PAWN), behind(to));
+        } else if (type == San.KING && Math.abs(to - from) == 2) {
+            moveCastlingRook(from, to, true);
+        }
+        key ^= stateKey();
+    }
+
+    // move the rook of a castling king move, or move it back if undo
+    private void moveCastlingRook(int from, int to, boolean undo) {
+        int rook = piece(sideToMove, San.ROOK);
+        int corner = to > from ? to + 1 : to - 2;
+        int castled = to > from ? to - 1 : to + 1;
+        remove(rook, undo ? castled : corner);
+        put(rook, undo ? corner : castled);
+    }
+
+    // the square of the pawn an en passant capture onto ep takes
+    private int behind(int ep) {
+        return sideToMove == WHITE ? ep - 8 : ep + 8;
+    }
+
+    /**
+     * @return the piece placement field of the position's FEN
+     */
+    public String placement() {
+        char[] squares = new char[64];
+        for (int piece = 0; piece < 12; piece++) {
+            for (long b = pieces[piece]; b != 0; b &= b - 1) {
+                squares[Long.numberOfTrailingZeros(b)] = letterOf(piece);
+            }
+        }
+        StringBuilder sb = new StringBuilder(72);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int sq = rank * 8; sq < rank * 8 + 8; sq++) {
+                if (squares[sq] == 0) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        sb.append((char) ('0' + empty));
+                        empty = 0;
+                    }
+                    sb.append(squares[sq]);
+                }
+            }
+            if (empty > 0) {
+                sb.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                sb.append('/');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation, all six fields
+     */
+    public String fen() {
+        StringBuilder sb = new StringBuilder(placement());
+        sb.append(sideToMove == WHITE ? " w " : " b ");
+        if (castling == 0) {
+            sb.append('-');
+        }
+        for (int right = 0; right < 4; right++) {
+            if ((castling & (1 << right)) != 0) {
+                sb.append("KQkq".charAt(right));
+            }
+        }
+        sb.append(' ');
+        if (epSquare == NONE) {
+            sb.append('-');
+        } else {
+            sb.append((char) ('a' + Bitboards.fileOf(epSquare)))
+                .append((char) ('1' + Bitboards.rankOf(epSquare)));
+        }
+        sb.append(' ').append(halfmoveClock);
+        sb.append(' ').append(fullmoveNumber);
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return fen();
+    }
+}
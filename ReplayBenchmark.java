@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times `finalPosition` over the games of a PGN file, round after round,
+ * then the same replay writing the FEN after every ply and last the replay
+ * starting from an `OpeningCache`.
+ *
+ * The first rounds run interpreted or with C1 code; the later ones show
+ * the replay once C2 has compiled and inlined it. Run it a second time
+ * with `-Xint` for the interpreted baseline, or with
+ * `-XX:+PrintCompilation` to see which replay methods get compiled.
+ *
+ * Usage: java ReplayBenchmark file.pgn [rounds] [maxMegabytes]
+ */
+public class ReplayBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String path = args[0];
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long maxBytes = (args.length > 2 ? Long.parseLong(args[2]) : 256)
+            << 20;
+
+        List<PgnGame> games = new ArrayList<>();
+        long bytes = 0;
+        try (GameReader reader = GameReader.open(path)) {
+            while (reader.hasNext() && bytes < maxBytes) {
+                PgnGame game = reader.next();
+                games.add(game);
+                bytes += game.length();
+            }
+        }
+        long plies = 0;
+        for (PgnGame game : games) {
+            plies += PgnReader.positionKeys(game.bytes()).length - 1;
+        }
+        System.out.format("%d games, %.1f MB, %d plies%n", games.size(),
+            bytes / 1e6, plies);
+
+        long best = Long.MAX_VALUE;
+        for (int round = 1; round <= rounds; round++) {
+            long t0 = System.nanoTime();
+            long length = 0;
+            for (PgnGame game : games) {
+                length += PgnReader.finalPosition(game.bytes()).length();
+            }
+            long nanos = System.nanoTime() - t0;
+            best = Math.min(best, nanos);
+            System.out.format("round %d: %s (%d)%n", round,
+                rate(games.size(), bytes, plies, nanos), length);
+        }
+        System.out.format("best: %s%n",
+            rate(games.size(), bytes, plies, best));
+
+        // the same replay, writing the FEN after every ply
+        long bestFens = Long.MAX_VALUE;
+        long[] length = new long[1];
+        for (int round = 1; round <= rounds; round++) {
+            long t0 = System.nanoTime();
+            for (PgnGame game : games) {
+                PgnReader.forEachFen(game.bytes(),
+                    fen -> length[0] += fen.length());
+            }
+            long nanos = System.nanoTime() - t0;
+            bestFens = Math.min(bestFens, nanos);
+            System.out.format("round %d, FEN every ply: %s (%d)%n", round,
+                rate(games.size(), bytes, plies, nanos), length[0]);
+        }
+        System.out.format("best, FEN every ply: %s%n",
+            rate(games.size(), bytes, plies, bestFens));
+
+        // the plain replay again, starting from cached opening positions
+        OpeningCache cache = new OpeningCache(1 << 16);
+        long bestCached = Long.MAX_VALUE;
+        for (int round = 1; round <= rounds; round++) {
+            long t0 = System.nanoTime();
+            long keys = 0;
+            for (PgnGame game : games) {
+                keys ^= PgnReader.replay(game.bytes(), cache).key();
+            }
+            long nanos = System.nanoTime() - t0;
+            bestCached = Math.min(bestCached, nanos);
+            System.out.format("round %d, opening cache: %s (%x)%n", round,
+                rate(games.size(), bytes, plies, nanos), keys);
+        }
+        System.out.format("best, opening cache: %s%n%s%n",
+            rate(games.size(), bytes, plies, bestCached), cache);
+    }
+
+    private static String rate(int games, long bytes, long plies,
+            long nanos) {
+        double seconds = nanos / 1e9;
+        return String.format("%.3f s, %.0f games/s, %.1f MB/s, %.2f M plies/s",
+            seconds, games / seconds, bytes / 1e6 / seconds,
+            plies / 1e6 / seconds);
+    }
+}
@@ -0,0 +1,360 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes a move in Standard Algebraic Notation into a single packed `int`,
+ * and writes legal moves back out in SAN.
+ *
+ * Squares are numbered 0 (a1) to 63 (h8), rank by rank. The packed move
+ * holds the target square, the moving piece, the optional disambiguating
+ * file and rank, the capture, promotion, check and mate markers, and the
+ * castling side. `decode` returns `INVALID` for text that is not SAN.
+ * Decoding a token from a buffer allocates nothing.
+ *
+ * @see http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm#c8.2.3
+ */
+public final class San {
+
+    public static final int INVALID = -1;
+
+    public static final int PAWN = 1;
+    public static final int KNIGHT = 2;
+    public static final int BISHOP = 3;
+    public static final int ROOK = 4;
+    public static final int QUEEN = 5;
+    public static final int KING = 6;
+
+    private static final int TO_MASK = 0x3f;
+    private static final int PIECE_SHIFT = 6;
+    private static final int FROM_FILE_SHIFT = 9;
+    private static final int FROM_RANK_SHIFT = 13;
+    private static final int CAPTURE = 1 << 17;
+    private static final int PROMOTION_SHIFT = 18;
+    private static final int CHECK = 1 << 21;
+    private static final int MATE = 1 << 22;
+    private static final int CASTLE_KING = 1 << 23;
+    private static final int CASTLE_QUEEN = 1 << 24;
+
+    private San() {
+    }
+
+    /**
+     * Decode a SAN move held in a String. Convenience for callers outside
+     * the tokenizer loop; it copies the text into a temporary buffer.
+     *
+     * @param move the move, e.g. `Nbxd7+` or `exd8=Q#`
+     * @return the packed move, or `INVALID`
+     */
+    public static int decode(String move) {
+        byte[] bytes = move.getBytes(StandardCharsets.US_ASCII);
+        return decode(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Decode the SAN move in bytes `[start, end)` of buf.
+     *
+     * @param buf the buffer holding the move text
+     * @param start the index of the move's first byte
+     * @param end the index just past the move's last byte
+     * @return the packed move, or `INVALID`
+     */
+    public static int decode(ByteBuffer buf, int start, int end) {
+        int flags = 0;
+        // trailing check, mate and move-quality suffixes
+        while (end > start) {
+            byte b = buf.get(end - 1);
+            if (b == '+') {
+                flags |= CHECK;
+            } else if (b == '#') {
+                flags |= MATE;
+            } else if (b != '!' && b != '?') {
+                break;
+            }
+            end--;
+        }
+        if (end - start < 2) {
+            return INVALID;
+        }
+        byte first = buf.get(start);
+        if (first == 'O' || first == '0') {
+            return castle(buf, start, end, first, flags);
+        }
+        int piece = pieceOf(first);
+        int i = start;
+        if (piece != 0) {
+            i++;
+        } else if (first >= 'a' && first <= 'h') {
+            piece = PAWN;
+        } else {
+            return INVALID;
+        }
+        // promotion suffix, with or without the '='
+        if (piece == PAWN) {
+            int promotion = pieceOf(buf.get(end - 1));
+            if (promotion != 0) {
+                if (promotion == KING) {
+                    return INVALID;
+                }
+                flags |= promotion << PROMOTION_SHIFT;
+                end--;
+                if (end > i && buf.get(end - 1) == '=') {
+                    end--;
+                }
+            }
+        }
+        if (end - i < 2) {
+            return INVALID;
+        }
+        int toFile = buf.get(end - 2) - 'a';
+        int toRank = buf.get(end - 1) - '1';
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) {
+            return INVALID;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int j = i; j < end - 2; j++) {
+            byte b = buf.get(j);
+            if (b >= 'a' && b <= 'h' && fromFile < 0 && fromRank < 0) {
+                fromFile = b - 'a';
+            } else if (b >= '1' && b <= '8' && fromRank < 0) {
+                fromRank = b - '1';
+            } else if ((b == 'x' || b == ':') && j == end - 3) {
+                flags |= CAPTURE;
+            } else {
+                return INVALID;
+            }
+        }
+        if (piece == PAWN && (fromRank >= 0
+                || (fromFile >= 0) != ((flags & CAPTURE) != 0))) {
+            return INVALID;
+        }
+        return flags | (toRank * 8 + toFile) | (piece << PIECE_SHIFT)
+            | ((fromFile + 1) << FROM_FILE_SHIFT)
+            | ((fromRank + 1) << FROM_RANK_SHIFT);
+    }
+
+    private static int castle(ByteBuffer buf, int start, int end,
+            byte letter, int flags) {
+        int length = end - start;
+        if (length != 3 && length != 5) {
+            return INVALID;
+        }
+        for (int i = start; i < end; i++) {
+            byte expected = (i - start) % 2 == 0 ? letter : (byte) '-';
+            if (buf.get(i) != expected) {
+                return INVALID;
+            }
+        }
+        flags |= length == 3 ? CASTLE_KING : CASTLE_QUEEN;
+        return flags | (KING << PIECE_SHIFT);
+    }
+
+    /**
+     * @param letter an upper case SAN piece letter
+     * @return the piece constant for it, or 0 if it is not a piece letter
+     */
+    public static int pieceOf(int letter) {
+        switch (letter) {
+            case 'N':
+                return KNIGHT;
+            case 'B':
+                return BISHOP;
+            case 'R':
+                return ROOK;
+            case 'Q':
+                return QUEEN;
+            case 'K':
+                return KING;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @param piece a piece constant
+     * @return its upper case letter; pawns are `P`
+     */
+    public static char letterOf(int piece) {
+        return " PNBRQK".charAt(piece);
+    }
+
+    public static int to(int move) {
+        return move & TO_MASK;
+    }
+
+    public static int toFile(int move) {
+        return move & 7;
+    }
+
+    public static int toRank(int move) {
+        return (move >>> 3) & 7;
+    }
+
+    public static int piece(int move) {
+        return (move >>> PIECE_SHIFT) & 7;
+    }
+
+    /**
+     * @return the disambiguating origin file 0-7, or -1 if none was given
+     */
+    public static int fromFile(int move) {
+        return ((move >>> FROM_FILE_SHIFT) & 0xf) - 1;
+    }
+
+    /**
+     * @return the disambiguating origin rank 0-7, or -1 if none was given
+     */
+    public static int fromRank(int move) {
+        return ((move >>> FROM_RANK_SHIFT) & 0xf) - 1;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @return the piece promoted to, or 0 if the move is not a promotion
+     */
+    public static int promotion(int move) {
+        return (move >>> PROMOTION_SHIFT) & 7;
+    }
+
+    public static boolean isCheck(int move) {
+        return (move & CHECK) != 0;
+    }
+
+    public static boolean isMate(int move) {
+        return (move & MATE) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & (CASTLE_KING | CASTLE_QUEEN)) != 0;
+    }
+
+    public static boolean isLongCastle(int move) {
+        return (move & CASTLE_QUEEN) != 0;
+    }
+
+    /**
+     * Write a decoded move back as SAN, for messages. Nothing about the
+     * position is known, so it is the move as given, not a checked one.
+     *
+     * @param move the move, packed by `decode`
+     * @return the move in SAN, e.g. `Nbd7`, `exd8=Q+` or `O-O`
+     */
+    public static String toString(int move) {
+        if (move == INVALID) {
+            return "(invalid)";
+        }
+        String suffix = isMate(move) ? "#" : isCheck(move) ? "+" : "";
+        if (isCastle(move)) {
+            return (isLongCastle(move) ? "O-O-O" : "O-O") + suffix;
+        }
+        StringBuilder sb = new StringBuilder(8);
+        if (piece(move) != PAWN) {
+            sb.append(letterOf(piece(move)));
+        }
+        if (fromFile(move) >= 0) {
+            sb.append((char) ('a' + fromFile(move)));
+        }
+        if (fromRank(move) >= 0) {
+            sb.append((char) ('1' + fromRank(move)));
+        }
+        if (isCapture(move)) {
+            sb.append('x');
+        }
+        sb.append((char) ('a' + toFile(move)))
+            .append((char) ('1' + toRank(move)));
+        if (promotion(move) != 0) {
+            sb.append('=').append(letterOf(promotion(move)));
+        }
+        return sb.append(suffix).toString();
+    }
+
+    /**
+     * Write a legal move of position in SAN, the inverse of `decode`.
+     *
+     * @param position the position before the move
+     * @param move the move, packed by `Move`
+     * @return the move in SAN, e.g. `Nbd7`, `exd8=Q+` or `O-O`
+     */
+    public static String format(Position position, int move) {
+        StringBuilder sb = new StringBuilder(8);
+        format(position, move, new int[MoveGenerator.MAX_MOVES], sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append a legal move of position to out in SAN. The origin is given
+     * only as far as needed to tell the move from other legal moves of
+     * the same piece type to the same square, and the check or mate
+     * suffix is found by playing the move and taking it back.
+     *
+     * @param position the position before the move; it is left unchanged
+     * @param move the move, packed by `Move`
+     * @param scratch a `MoveGenerator.MAX_MOVES` long work array
+     * @param out receives the SAN text
+     */
+    public static void format(Position position, int move, int[] scratch,
+            StringBuilder out) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = Position.typeOf(position.pieceAt(from));
+        boolean capture = position.pieceAt(to) != Position.NONE
+            || (type == PAWN && to == position.epSquare());
+        if (type == KING && Math.abs(to - from) == 2) {
+            out.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == PAWN) {
+            if (capture) {
+                out.append((char) ('a' + Bitboards.fileOf(from))).append('x');
+            }
+            square(out, to);
+            if (Move.promotion(move) != 0) {
+                out.append('=').append(letterOf(Move.promotion(move)));
+            }
+        } else {
+            out.append(letterOf(type));
+            disambiguate(position, move, type, scratch, out);
+            if (capture) {
+                out.append('x');
+            }
+            square(out, to);
+        }
+        long undo = position.makeMove(move);
+        if (position.inCheck()) {
+            boolean mate = MoveGenerator.legalMoves(position, scratch) == 0;
+            out.append(mate ? '#' : '+');
+        }
+        position.unmakeMove(move, undo);
+    }
+
+    private static void disambiguate(Position position, int move, int type,
+            int[] scratch, StringBuilder out) {
+        int from = Move.from(move);
+        int n = MoveGenerator.generate(position, scratch,
+            Bitboards.bit(Move.to(move)), 1 << type);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < n; i++) {
+            int other = Move.from(scratch[i]);
+            if (other != from) {
+                ambiguous = true;
+                sameFile |= Bitboards.fileOf(other) == Bitboards.fileOf(from);
+                sameRank |= Bitboards.rankOf(other) == Bitboards.rankOf(from);
+            }
+        }
+        // the file if it tells the pieces apart, else the rank, else both
+        if (ambiguous && (!sameFile || sameRank)) {
+            out.append((char) ('a' + Bitboards.fileOf(from)));
+        }
+        if (sameFile) {
+            out.append((char) ('1' + Bitboards.rankOf(from)));
+        }
+    }
+
+    private static void square(StringBuilder out, int sq) {
+        out.append((char) ('a' + Bitboards.fileOf(sq)))
+            .append((char) ('1' + Bitboards.rankOf(sq)));
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * A condition on one tag pair of a game, checked against its parsed tag
+ * section before any of its movetext is read.
+ *
+ * A condition is written `Name op value`, e.g. `White = Morphy, Paul`,
+ * `WhiteElo >= 2400` or `Date < 1900`. The operators are `=` and `!=`,
+ * `~` for a case-insensitive substring, and `<`, `<=`, `>` and `>=`.
+ * When the value is a number the comparison is numeric, and a tag that is
+ * not a number, such as an unknown Elo of `?` or `-`, fails it. A date
+ * tag, one whose name ends in `Date`, compared with a date or a date
+ * prefix such as `1858` or `1858.11` is compared field by field for as
+ * many fields as the value gives, so `Date = 1858` holds for any day of
+ * that year; a tag with an unknown `??` field among them fails. Other
+ * values compare as text. The name `Player` stands for either `White` or
+ * `Black`, and `!=` holds when `=` does not. A game without the tag fails
+ * every condition on it but `!=`.
+ * Conditions combine with `and`, `or` and `negate` like any `Predicate`.
+ *
+ * @see http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm#c8.1
+ */
+public final class TagFilter implements Predicate<PgnHeader> {
+
+    private static final String[] OPERATORS = {
+        "!=", "<=", ">=", "=", "<", ">", "~"
+    };
+
+    // what compare returns when the tag cannot be compared with the value
+    private static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+    private final String[] names;
+    private final boolean negated;
+    private final String operator;
+    private final String value;
+    private final double number;
+    private final int[] date;
+
+    private TagFilter(String[] names, String operator, String value) {
+        this.names = names;
+        this.negated = operator.equals("!=");
+        this.operator = negated ? "=" : operator;
+        this.value = this.operator.equals("~")
+            ? value.toLowerCase(Locale.ROOT) : value;
+        this.number = parseNumber(value);
+        this.date = names[0].endsWith("Date") ? parseDate(value) : null;
+    }
+
+    /**
+     * Parse a condition such as `Result = 1-0`.
+     *
+     * @param condition a tag name, an operator and a value
+     * @return the condition
+     * @throws IllegalArgumentException if condition has no tag name or
+     *     operator
+     */
+    public static TagFilter parse(String condition) {
+        int end = 0;
+        while (end < condition.length()
+                && isNameChar(condition.charAt(end))) {
+            end++;
+        }
+        String name = condition.substring(0, end).trim();
+        int op = end;
+        while (op < condition.length() && condition.charAt(op) == ' ') {
+            op++;
+        }
+        for (String operator : OPERATORS) {
+            if (!name.isEmpty() && condition.startsWith(operator, op)) {
+                String value = condition.substring(op + operator.length())
+                    .trim();
+                String[] names = name.equals("Player")
+                    ? new String[] {"White", "Black"} : new String[] {name};
+                return new TagFilter(names, operator, value);
+            }
+        }
+        throw new IllegalArgumentException("bad tag condition \""
+            + condition + "\", expected e.g. \"WhiteElo >= 2400\"");
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * @return text as a number if it is a plain decimal, else NaN; most
+     *     tag values are not, so no exception is thrown to find out
+     */
+    private static double parseNumber(String text) {
+        int digits = 0;
+        int points = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.') {
+                points++;
+            } else if (c != '-' || i > 0) {
+                return Double.NaN;
+            }
+        }
+        return digits == 0 || points > 1 ? Double.NaN
+            : Double.parseDouble(text);
+    }
+
+    /**
+     * @return the numeric fields of a date or date prefix such as
+     *     `1858.11`, or null if text has a field that is not a number
+     */
+    private static int[] parseDate(String text) {
+        String[] parts = text.split("\\.", -1);
+        int[] fields = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            double n = parseNumber(parts[i]);
+            if (Double.isNaN(n) || parts[i].indexOf('-') >= 0) {
+                return null;
+            }
+            fields[i] = (int) n;
+        }
+        return fields;
+    }
+
+    /**
+     * @param header the tag pairs of a game
+     * @return whether the condition holds for the game
+     */
+    @Override
+    public boolean test(PgnHeader header) {
+        for (String name : names) {
+            String tag = header.get(name);
+            if (tag != null && matches(tag)) {
+                return !negated;
+            }
+        }
+        return negated;
+    }
+
+    private boolean matches(String tag) {
+        switch (operator) {
+            case "=":
+                return date != null ? compare(tag) == 0 : tag.equals(value);
+            case "~":
+                return tag.toLowerCase(Locale.ROOT).contains(value);
+            default:
+                int c = compare(tag);
+                if (c == INCOMPARABLE) {
+                    return false;
+                }
+                return operator.equals("<") ? c < 0
+                    : operator.equals("<=") ? c <= 0
+                    : operator.equals(">") ? c > 0
+                    : c >= 0;
+        }
+    }
+
+    /**
+     * @return the sign of tag compared with the value, or `INCOMPARABLE`
+     */
+    private int compare(String tag) {
+        if (date != null) {
+            return compareDate(tag);
+        }
+        if (!Double.isNaN(number)) {
+            double n = parseNumber(tag);
+            return Double.isNaN(n) ? INCOMPARABLE : Double.compare(n, number);
+        }
+        return Integer.signum(tag.compareTo(value));
+    }
+
+    private int compareDate(String tag) {
+        String[] parts = tag.split("\\.", -1);
+        if (parts.length < date.length) {
+            return INCOMPARABLE;
+        }
+        for (int i = 0; i < date.length; i++) {
+            double n = parseNumber(parts[i]);
+            if (Double.isNaN(n)) {
+                return INCOMPARABLE;
+            }
+            if ((int) n != date[i]) {
+                return (int) n < date[i] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.join("|", names) + (negated ? " != " : " " + operator
+            + " ") + value;
+    }
+}
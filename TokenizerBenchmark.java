@@ -0,0 +1,116 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the regex movetext scan that `finalPosition` used to do with
+ * `PgnTokenizer` on the same games, then times the tokenizer over the whole
+ * file mapped into memory.
+ *
+ * Usage: java TokenizerBenchmark file.pgn [rounds] [maxMegabytes]
+ */
+public class TokenizerBenchmark {
+
+    private static final Pattern MOVE_PATTERN = Pattern.compile(
+        "\\d+\\. ([a-zA-ZO\\-0-9=+#?]+\\s?[a-zA-ZO\\-0-9=+#?]+)");
+
+    public static void main(String[] args) throws IOException {
+        String path = args[0];
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long maxBytes = (args.length > 2 ? Long.parseLong(args[2]) : 256)
+            << 20;
+
+        List<PgnGame> games = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        long bytes = 0;
+        try (GameReader reader = GameReader.open(path)) {
+            while (reader.hasNext() && bytes < maxBytes) {
+                PgnGame game = reader.next();
+                games.add(game);
+                texts.add(game.text());
+                bytes += game.length();
+            }
+        }
+        System.out.format("%d games, %.1f MB%n", games.size(), bytes / 1e6);
+
+        for (int round = 1; round <= rounds; round++) {
+            long t0 = System.nanoTime();
+            long regexMoves = 0;
+            for (String text : texts) {
+                regexMoves += regexMoves(text);
+            }
+            long t1 = System.nanoTime();
+            long tokenMoves = 0;
+            for (PgnGame game : games) {
+                tokenMoves += tokenMoves(game.bytes());
+            }
+            long t2 = System.nanoTime();
+            System.out.format("round %d: regex %s, tokenizer %s%n", round,
+                rate(bytes, regexMoves, t1 - t0),
+                rate(bytes, tokenMoves, t2 - t1));
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path),
+                StandardOpenOption.READ)) {
+            long size = Math.min(channel.size(), Integer.MAX_VALUE);
+            MappedByteBuffer mapped =
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            for (int round = 1; round <= rounds; round++) {
+                long t0 = System.nanoTime();
+                long moves = tokenMoves(mapped);
+                long t1 = System.nanoTime();
+                System.out.format("round %d: mapped tokenizer %s%n", round,
+                    rate(size, moves, t1 - t0));
+            }
+        }
+    }
+
+    /**
+     * The movetext scan from the original `finalPosition`: rebuild the
+     * movetext by concatenation, then run the move-pair regex over it.
+     */
+    static long regexMoves(String game) {
+        String[] splitGame = game.split("\n");
+        boolean sanStart = false;
+        String sanText = "";
+        for (int i = 0; i < splitGame.length; i++) {
+            if (splitGame[i].trim().isEmpty()) {
+                sanStart = true;
+            }
+            if (sanStart) {
+                sanText = sanText + " " + splitGame[i];
+            }
+        }
+        Matcher m = MOVE_PATTERN.matcher(sanText.trim());
+        long moves = 0;
+        while (m.find()) {
+            moves += m.group(1).split(" ").length;
+        }
+        return moves;
+    }
+
+    static long tokenMoves(ByteBuffer game) {
+        PgnTokenizer tokens = new PgnTokenizer(game);
+        long moves = 0;
+        int token;
+        while ((token = tokens.next()) != PgnTokenizer.END) {
+            if (token == PgnTokenizer.SAN) {
+                moves++;
+            }
+        }
+        return moves;
+    }
+
+    private static String rate(long bytes, long moves, long nanos) {
+        double seconds = nanos / 1e9;
+        return String.format("%d moves in %.3f s (%.1f MB/s, %.2f M moves/s)",
+            moves, seconds, bytes / 1e6 / seconds, moves / 1e6 / seconds);
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One line of play in a game's variation tree: the main line, or a
+ * recursive annotation variation branching off another line.
+ *
+ * A variation replaces the last move played before it in its parent, so
+ * it starts from the position before that move, `startPly` plies into the
+ * game. Each line keeps the position at its end and its sub-variations in
+ * the order they appear in the movetext.
+ *
+ * @see http://www.saremba.de/chessgml/standards/pgn/pgn-complete.htm#c8.2.5
+ */
+public final class Variation {
+
+    private final Variation parent;
+    private final int startPly;
+    private final List<Variation> children = new ArrayList<>(0);
+    private int plies;
+    private Position end;
+
+    Variation(Variation parent, int startPly) {
+        this.parent = parent;
+        this.startPly = startPly;
+    }
+
+    /**
+     * Start a sub-variation in place of this line's last move.
+     */
+    Variation fork() {
+        Variation child = new Variation(this, startPly + plies - 1);
+        children.add(child);
+        return child;
+    }
+
+    void addPly() {
+        plies++;
+    }
+
+    void end(Position position) {
+        this.end = position;
+    }
+
+    /**
+     * @return the line this one branches off, or null for the main line
+     */
+    public Variation parent() {
+        return parent;
+    }
+
+    /**
+     * @return how many plies into the game the line starts
+     */
+    public int startPly() {
+        return startPly;
+    }
+
+    /**
+     * @return how many moves the line has
+     */
+    public int plies() {
+        return plies;
+    }
+
+    /**
+     * @return the variations branching off this line, in movetext order
+     */
+    public List<Variation> children() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @return the position at the end of the line, owned by the tree
+     */
+    public Position end() {
+        return end;
+    }
+
+    /**
+     * @return this line and every variation under it, each line before
+     *     the variations branching off it, in movetext order
+     */
+    public List<Variation> lines() {
+        List<Variation> lines = new ArrayList<>();
+        addLines(lines);
+        return lines;
+    }
+
+    private void addLines(List<Variation> lines) {
+        lines.add(this);
+        for (Variation child : children) {
+            child.addLines(lines);
+        }
+    }
+}
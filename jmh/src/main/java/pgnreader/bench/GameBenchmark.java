@@ -0,0 +1,64 @@
+package pgnreader.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole-game work on short, medium and very long games: reading a tag,
+ * replaying the movetext and printing the final position as FEN.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"short", "medium", "long"})
+    public String length;
+
+    private String text;
+    private ByteBuffer bytes;
+    private Object position;
+
+    @Setup
+    public void setup() {
+        text = Games.text(length);
+        bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        position = ReaderApi.replay(bytes.duplicate());
+    }
+
+    @Benchmark
+    public String tagValue() {
+        return ReaderApi.tagValue("White", text);
+    }
+
+    @Benchmark
+    public String finalPosition() {
+        // a duplicate so every call starts from the buffer's beginning
+        return ReaderApi.finalPosition(bytes.duplicate());
+    }
+
+    @Benchmark
+    public String fen() {
+        return ReaderApi.fen(position);
+    }
+
+    @Benchmark
+    public String placement() {
+        return ReaderApi.placement(position);
+    }
+}
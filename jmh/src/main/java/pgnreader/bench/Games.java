@@ -0,0 +1,61 @@
+package pgnreader.bench;
+
+/**
+ * The games the benchmarks run on: a short one (Fool's Mate, 4 plies), a
+ * medium one (the Opera Game, 33 plies) and a very long one (an opening
+ * followed by knight shuffling, over 600 plies).
+ */
+final class Games {
+
+    static final String SHORT = "[Event \"Fool's Mate\"]\n\n"
+        + "1. f3 e6 2. g4 Qh4# 0-1\n";
+
+    static final String MEDIUM = "[Event \"A Night at the Opera\"]\n"
+        + "[Site \"Paris FRA\"]\n"
+        + "[Date \"1858.??.??\"]\n"
+        + "[Round \"?\"]\n"
+        + "[White \"Paul Morphy\"]\n"
+        + "[Black \"Duke Karl / Count Isouard\"]\n"
+        + "[Result \"1-0\"]\n\n"
+        + "1. e4 e5 2. Nf3 d6 3. d4 Bg4 4. dxe5 Bxf3 5. Qxf3 dxe5 6. Bc4 Nf6\n"
+        + "7. Qb3 Qe7 8. Nc3 c6 9. Bg5 b5 10. Nxb5 cxb5 11. Bxb5+ Nbd7\n"
+        + "12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 Qe6 15. Bxd7+ Nxd7 16. Qb8+\n"
+        + "Nxb8 17. Rd8# 1-0\n";
+
+    static final String LONG = longGame(150);
+
+    private Games() {
+    }
+
+    static String text(String length) {
+        switch (length) {
+            case "short":
+                return SHORT;
+            case "medium":
+                return MEDIUM;
+            case "long":
+                return LONG;
+            default:
+                throw new IllegalArgumentException(length);
+        }
+    }
+
+    /**
+     * A legal game of 4 + 4 * shuffles plies: two pawn moves each, then
+     * the king's knights going out and back.
+     */
+    private static String longGame(int shuffles) {
+        StringBuilder sb = new StringBuilder("[Event \"Shuffle\"]\n"
+            + "[White \"A\"]\n[Black \"B\"]\n[Result \"1/2-1/2\"]\n\n"
+            + "1. e4 e5 2. d4 d5");
+        int number = 3;
+        for (int i = 0; i < shuffles; i++) {
+            sb.append(' ').append(number++).append(". Nf3 Nf6");
+            sb.append(' ').append(number++).append(". Ng1 Ng8");
+            if (i % 4 == 3) {
+                sb.append('\n');
+            }
+        }
+        return sb.append(" 1/2-1/2\n").toString();
+    }
+}
@@ -0,0 +1,77 @@
+package pgnreader.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-move work: the SAN helpers and resolving a SAN move to a legal
+ * move, both when one piece can make it and when a pin has to rule out
+ * the other candidate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    // the d2 knight is pinned, so only the g1 knight can play Nf3
+    private static final String PINNED_FEN =
+        "4k3/8/8/8/1b6/8/3N4/4K1N1 w - - 0 1";
+    private static final String START_FEN =
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Object start;
+    private Object pinned;
+    private int knightMove;
+    private final int[] scratch = new int[256];
+
+    @Setup
+    public void setup() {
+        start = ReaderApi.fromFen(START_FEN);
+        pinned = ReaderApi.fromFen(PINNED_FEN);
+        knightMove = ReaderApi.decodeSan("Nf3");
+    }
+
+    /**
+     * The SAN moves for the helpers, kept apart so that the `canMove`
+     * benchmarks, which do not read them, run once rather than per move.
+     */
+    @State(Scope.Benchmark)
+    public static class SanMove {
+
+        @Param({"e4", "Nbd7", "exd8=Q+"})
+        public String san;
+    }
+
+    @Benchmark
+    public String disProvider(SanMove move) {
+        return ReaderApi.disProvider(move.san);
+    }
+
+    @Benchmark
+    public String getEndLoc(SanMove move) {
+        return ReaderApi.getEndLoc(move.san);
+    }
+
+    @Benchmark
+    public int canMoveSingle() {
+        return ReaderApi.canMove(start, knightMove, scratch);
+    }
+
+    @Benchmark
+    public int canMovePinned() {
+        return ReaderApi.canMove(pinned, knightMove, scratch);
+    }
+}
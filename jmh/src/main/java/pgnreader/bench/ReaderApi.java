@@ -0,0 +1,156 @@
+package pgnreader.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
+/**
+ * Typed entry points into the reader, whose classes live in the default
+ * package and so cannot be imported here. Each call goes through a
+ * constant `MethodHandle`, which the JIT inlines like a direct call.
+ * Positions are passed around as `Object`.
+ */
+final class ReaderApi {
+
+    private static final MethodHandle TAG_VALUE;
+    private static final MethodHandle DIS_PROVIDER;
+    private static final MethodHandle GET_END_LOC;
+    private static final MethodHandle SAN_DECODE;
+    private static final MethodHandle CAN_MOVE;
+    private static final MethodHandle FINAL_POSITION;
+    private static final MethodHandle REPLAY;
+    private static final MethodHandle FROM_FEN;
+    private static final MethodHandle FEN;
+    private static final MethodHandle PLACEMENT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> reader = Class.forName("PgnReader");
+            Class<?> position = Class.forName("Position");
+            Class<?> san = Class.forName("San");
+            TAG_VALUE = lookup.findStatic(reader, "tagValue", MethodType
+                .methodType(String.class, String.class, String.class));
+            DIS_PROVIDER = lookup.findStatic(reader, "disProvider",
+                MethodType.methodType(String.class, String.class));
+            GET_END_LOC = lookup.findStatic(reader, "getEndLoc",
+                MethodType.methodType(String.class, String.class));
+            SAN_DECODE = lookup.findStatic(san, "decode",
+                MethodType.methodType(int.class, String.class));
+            CAN_MOVE = lookup.findStatic(reader, "canMove", MethodType
+                .methodType(int.class, position, int.class, int[].class))
+                .asType(MethodType.methodType(int.class, Object.class,
+                    int.class, int[].class));
+            FINAL_POSITION = lookup.findStatic(reader, "finalPosition",
+                MethodType.methodType(String.class, ByteBuffer.class));
+            REPLAY = lookup.findStatic(reader, "replay",
+                MethodType.methodType(position, ByteBuffer.class))
+                .asType(MethodType.methodType(Object.class,
+                    ByteBuffer.class));
+            FROM_FEN = lookup.findStatic(position, "fromFen",
+                MethodType.methodType(position, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            FEN = lookup.findVirtual(position, "fen",
+                MethodType.methodType(String.class))
+                .asType(MethodType.methodType(String.class, Object.class));
+            PLACEMENT = lookup.findVirtual(position, "placement",
+                MethodType.methodType(String.class))
+                .asType(MethodType.methodType(String.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private ReaderApi() {
+    }
+
+    static String tagValue(String tagName, String game) {
+        try {
+            return (String) TAG_VALUE.invokeExact(tagName, game);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static String disProvider(String move) {
+        try {
+            return (String) DIS_PROVIDER.invokeExact(move);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static String getEndLoc(String move) {
+        try {
+            return (String) GET_END_LOC.invokeExact(move);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int decodeSan(String move) {
+        try {
+            return (int) SAN_DECODE.invokeExact(move);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int canMove(Object position, int move, int[] scratch) {
+        try {
+            return (int) CAN_MOVE.invokeExact(position, move, scratch);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static String finalPosition(ByteBuffer game) {
+        try {
+            return (String) FINAL_POSITION.invokeExact(game);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Object replay(ByteBuffer game) {
+        try {
+            return (Object) REPLAY.invokeExact(game);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Object fromFen(String fen) {
+        try {
+            return (Object) FROM_FEN.invokeExact(fen);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static String fen(Object position) {
+        try {
+            return (String) FEN.invokeExact(position);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static String placement(Object position) {
+        try {
+            return (String) PLACEMENT.invokeExact(position);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new IllegalStateException(t);
+    }
+}